@@ -1,29 +1,159 @@
 package ru.dbhub;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.lang.Nullable;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.util.retry.Retry;
 
+import java.time.Duration;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
 
 @RestController
 @RequestMapping("/api/articles")
 public class ArticlesController {
+    private static final ParameterizedTypeReference<ServerSentEvent<ArticleSummary>> ARTICLE_EVENT_TYPE =
+        new ParameterizedTypeReference<>() {};
+
+    private static final int BACKFILL_BATCH_SIZE = 100;
+
+    private static final int MAX_BACKFILL_ARTICLES = 1000;
+
+    private static final ServerSentEvent<String> RESET_EVENT = ServerSentEvent.builder("reload").event("reset").build();
+
+    private static final Duration UPSTREAM_MIN_BACKOFF = Duration.ofSeconds(1);
+
+    private static final Duration UPSTREAM_MAX_BACKOFF = Duration.ofSeconds(30);
+
+    private static final long NO_UPSTREAM_ARTICLE_ID = -1;
+
+    private static final long NO_BOUND_ARTICLE_ID = -1;
+
+    private static final CacheControl PINNED_PAGE_CACHE_CONTROL =
+        CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
+    private static final int CLIENT_BUFFER_SIZE = 1000;
+
+    private static final Duration CLIENT_KEEP_ALIVE_RATE = Duration.ofSeconds(20);
+
+    private static final int MAX_ARTICLES_COUNT = 1000;
+
+    @Autowired
+    private ArticlesPageCache articlesPageCache;
+
     private final WebClient webClient;
 
+    private final AtomicLong lastUpstreamArticleId = new AtomicLong(NO_UPSTREAM_ARTICLE_ID);
+
+    private final Flux<ArticleSummary> sharedArticles;
+
     public ArticlesController(@Value("${ru.dbhub.collector-url}") String collectorUrl) {
-        this.webClient = WebClient.create(
-            UriComponentsBuilder.fromUriString(collectorUrl)
-                .path("/articles")
-                .toUriString()
-        );
+        this.webClient = WebClient.builder()
+            .baseUrl(
+                UriComponentsBuilder.fromUriString(collectorUrl)
+                    .path("/articles")
+                    .toUriString()
+            )
+            .clientConnector(new ReactorClientHttpConnector(HttpClient.create().compress(true)))
+            .defaultHeaders(headers -> headers.setAccept(InternalMediaTypes.ACCEPTED))
+            .build();
+
+        this.sharedArticles = Flux.defer(this::streamUpstreamArticles)
+            .repeatWhen(completions -> completions.delayElements(UPSTREAM_MIN_BACKOFF))
+            .retryWhen(
+                Retry.backoff(Long.MAX_VALUE, UPSTREAM_MIN_BACKOFF)
+                    .maxBackoff(UPSTREAM_MAX_BACKOFF)
+                    .transientErrors(true)
+            )
+            .doOnCancel(() -> lastUpstreamArticleId.set(NO_UPSTREAM_ARTICLE_ID))
+            .publish()
+            .refCount();
+    }
+
+    private Flux<ArticleSummary> streamUpstreamArticles() {
+        long boundId = lastUpstreamArticleId.get();
+        return webClient
+            .get()
+            .uri(
+                uriBuilder -> uriBuilder
+                    .path("/stream")
+                    .queryParamIfPresent(
+                        "boundId", Optional.of(boundId).filter(id -> id != NO_UPSTREAM_ARTICLE_ID)
+                    )
+                    .build()
+            )
+            .accept(MediaType.TEXT_EVENT_STREAM)
+            .retrieve()
+            .bodyToFlux(ARTICLE_EVENT_TYPE)
+            .mapNotNull(ServerSentEvent::data)
+            .doOnNext(article -> lastUpstreamArticleId.set(article.id()));
+    }
+
+    private Mono<ArticleSummariesAndBoundId> getArticleSummariesAfterAsync(long boundId) {
+        return webClient
+            .get()
+            .uri(
+                uriBuilder -> uriBuilder
+                    .path("/summaries/after")
+                    .queryParam("boundId", boundId)
+                    .queryParam("limit", BACKFILL_BATCH_SIZE)
+                    .build()
+            )
+            .retrieve()
+            .bodyToMono(ArticleSummariesAndBoundId.class);
+    }
+
+    private Flux<ArticleSummary> backfillArticlesAfter(long boundId) {
+        return getArticleSummariesAfterAsync(boundId)
+            .expand(summariesAndBoundId -> summariesAndBoundId.articles().isEmpty()
+                ? Mono.empty()
+                : getArticleSummariesAfterAsync(summariesAndBoundId.boundId())
+            )
+            .flatMapIterable(ArticleSummariesAndBoundId::articles)
+            .take(MAX_BACKFILL_ARTICLES + 1)
+            .collectList()
+            .flatMapMany(articles -> articles.size() > MAX_BACKFILL_ARTICLES
+                ? Flux.error(new BackfillTooLongException())
+                : Flux.fromIterable(articles)
+            );
     }
 
     private String collectorUrl;
 
+    private static void checkArticlesCount(int count) {
+        if (count <= 0 || count > MAX_ARTICLES_COUNT) {
+            throw new ResponseStatusException(
+                BAD_REQUEST, "Articles count must be between 1 and %d".formatted(MAX_ARTICLES_COUNT)
+            );
+        }
+    }
+
     @GetMapping("/after")
-    public ArticlesAndBoundId getArticlesAfter(@RequestParam long boundId, @RequestParam int limit) {
+    public ArticlesAndBoundId getArticlesAfter(
+        @RequestParam long boundId, @RequestParam int limit, @RequestParam(required = false) @Nullable Long waitMillis
+    ) {
+        checkArticlesCount(limit);
         return Objects.requireNonNull(
             webClient
                 .get()
@@ -32,6 +162,7 @@ public class ArticlesController {
                         .path("/after")
                         .queryParam("boundId", boundId)
                         .queryParam("limit", limit)
+                        .queryParamIfPresent("waitMillis", Optional.ofNullable(waitMillis))
                         .build()
                 )
                 .retrieve()
@@ -40,24 +171,172 @@ public class ArticlesController {
         );
     }
 
-    @GetMapping("/page")
-    public ArticlesAndBoundId getArticlesPage(
-        @RequestParam long boundId, @RequestParam int page, @RequestParam int count
-    ) {
+    private Mono<ArticlesAndBoundId> fetchArticlesPageAsync(long boundId, @Nullable String cursor, int count) {
+        return webClient
+            .get()
+            .uri(
+                uriBuilder -> uriBuilder
+                    .path("/page")
+                    .queryParam("boundId", boundId)
+                    .queryParamIfPresent("cursor", Optional.ofNullable(cursor))
+                    .queryParam("count", count)
+                    .build()
+            )
+            .retrieve()
+            .bodyToMono(ArticlesAndBoundId.class)
+            .onErrorMap(
+                WebClientResponseException.BadRequest.class,
+                exception -> new ResponseStatusException(BAD_REQUEST, "Bad articles page cursor")
+            );
+    }
+
+    @GetMapping("/summaries/after")
+    public ArticleSummariesAndBoundId getArticleSummariesAfter(@RequestParam long boundId, @RequestParam int limit) {
+        checkArticlesCount(limit);
         return Objects.requireNonNull(
             webClient
                 .get()
                 .uri(
                     uriBuilder -> uriBuilder
-                        .path("/page")
+                        .path("/summaries/after")
                         .queryParam("boundId", boundId)
-                        .queryParam("page", page)
-                        .queryParam("count", count)
+                        .queryParam("limit", limit)
                         .build()
                 )
                 .retrieve()
-                .bodyToMono(ArticlesAndBoundId.class)
+                .bodyToMono(ArticleSummariesAndBoundId.class)
                 .block()
         );
     }
+
+    private Mono<ArticleSummariesAndBoundId> fetchArticleSummariesPageAsync(
+        long boundId, @Nullable String cursor, int count
+    ) {
+        return webClient
+            .get()
+            .uri(
+                uriBuilder -> uriBuilder
+                    .path("/summaries/page")
+                    .queryParam("boundId", boundId)
+                    .queryParamIfPresent("cursor", Optional.ofNullable(cursor))
+                    .queryParam("count", count)
+                    .build()
+            )
+            .retrieve()
+            .bodyToMono(ArticleSummariesAndBoundId.class)
+            .onErrorMap(
+                WebClientResponseException.BadRequest.class,
+                exception -> new ResponseStatusException(BAD_REQUEST, "Bad articles page cursor")
+            );
+    }
+
+    private static ResponseEntity<?> makePinnedPageResponse(ArticlesPageCache.Page page) {
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .eTag(page.eTag())
+            .cacheControl(PINNED_PAGE_CACHE_CONTROL)
+            .body(page.body());
+    }
+
+    private <T> Mono<ResponseEntity<?>> getPinnedPage(
+        ArticlesPageCache.Key key, Supplier<Mono<T>> pageFetcher, ToLongFunction<T> boundIdOfPage
+    ) {
+        var unpinnedPage = new AtomicReference<T>();
+        return Mono
+            .fromFuture(() -> articlesPageCache.get(key, () -> pageFetcher.get().toFuture().thenApply(page -> {
+                if (boundIdOfPage.applyAsLong(page) != key.boundId()) {
+                    unpinnedPage.set(page);
+                    return null;
+                }
+                return page;
+            })))
+            .flatMap(cachedPage -> {
+                if (cachedPage.isPresent()) {
+                    return Mono.just(makePinnedPageResponse(cachedPage.get()));
+                }
+                if (unpinnedPage.get() != null) {
+                    return Mono.just(ResponseEntity.ok(unpinnedPage.get()));
+                }
+                return pageFetcher.get().map(ResponseEntity::ok);
+            });
+    }
+
+    @GetMapping("/page")
+    public Mono<ResponseEntity<?>> getArticlesPage(
+        @RequestParam long boundId, @RequestParam(required = false) @Nullable String cursor, @RequestParam int count
+    ) {
+        checkArticlesCount(count);
+        if (boundId == NO_BOUND_ARTICLE_ID) {
+            return fetchArticlesPageAsync(boundId, cursor, count).map(ResponseEntity::ok);
+        }
+        return getPinnedPage(
+            new ArticlesPageCache.Key("/page", boundId, cursor, count),
+            () -> fetchArticlesPageAsync(boundId, cursor, count),
+            ArticlesAndBoundId::boundId
+        );
+    }
+
+    @GetMapping("/summaries/page")
+    public Mono<ResponseEntity<?>> getArticleSummariesPage(
+        @RequestParam long boundId, @RequestParam(required = false) @Nullable String cursor, @RequestParam int count
+    ) {
+        checkArticlesCount(count);
+        if (boundId == NO_BOUND_ARTICLE_ID) {
+            return fetchArticleSummariesPageAsync(boundId, cursor, count).map(ResponseEntity::ok);
+        }
+        return getPinnedPage(
+            new ArticlesPageCache.Key("/summaries/page", boundId, cursor, count),
+            () -> fetchArticleSummariesPageAsync(boundId, cursor, count),
+            ArticleSummariesAndBoundId::boundId
+        );
+    }
+
+    @GetMapping("/{id}")
+    public Article getArticle(@PathVariable long id) {
+        return Objects.requireNonNull(
+            webClient
+                .get()
+                .uri(uriBuilder -> uriBuilder.path("/{id}").build(id))
+                .retrieve()
+                .bodyToMono(Article.class)
+                .onErrorMap(
+                    WebClientResponseException.NotFound.class,
+                    exception -> new ResponseStatusException(NOT_FOUND, "No such article")
+                )
+                .block()
+        );
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<?>> streamArticles(
+        @RequestHeader(name = "Last-Event-ID", required = false) @Nullable Long lastEventId,
+        @RequestParam(required = false) @Nullable Long boundId
+    ) {
+        var clientBoundId = lastEventId != null ? lastEventId : boundId;
+
+        return Flux.defer(() -> {
+            var lastSentArticleId = new AtomicLong(clientBoundId == null ? Long.MIN_VALUE : clientBoundId);
+            var liveArticles = sharedArticles.onBackpressureBuffer(CLIENT_BUFFER_SIZE);
+            var articles = clientBoundId == null
+                ? liveArticles
+                : Flux.mergeSequential(backfillArticlesAfter(clientBoundId), liveArticles);
+
+            var articleEvents = articles
+                .filter(article -> article.id() > lastSentArticleId.get())
+                .doOnNext(article -> lastSentArticleId.set(article.id()))
+                .map(article -> ServerSentEvent.builder(article)
+                    .id(String.valueOf(article.id()))
+                    .event("article")
+                    .build()
+                );
+            var keepAliveEvents = Flux.interval(CLIENT_KEEP_ALIVE_RATE)
+                .map(tick -> ServerSentEvent.<ArticleSummary>builder().comment("keep-alive").build());
+
+            return Flux.<ServerSentEvent<?>>merge(articleEvents, keepAliveEvents)
+                .onErrorResume(BackfillTooLongException.class, exception -> Mono.just(RESET_EVENT));
+        });
+    }
+
+    private static class BackfillTooLongException extends RuntimeException {
+    }
 }
@@ -0,0 +1,69 @@
+package ru.dbhub;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+@Component
+class ArticlesPageCache {
+    record Key(String path, long boundId, @Nullable String cursor, int count) {
+    }
+
+    record Page(byte[] body, String eTag) {
+    }
+
+    @Autowired
+    private ObjectMapper jsonMapper;
+
+    private final AsyncCache<Key, Page> pages;
+
+    ArticlesPageCache(
+        @Value("${ru.dbhub.articles-page-cache.max-pages}") int maxPages,
+        @Value("${ru.dbhub.articles-page-cache.max-bytes}") long maxBytes
+    ) {
+        int minPageWeight = (int) Math.min(Integer.MAX_VALUE, Math.max(1, maxBytes / maxPages));
+        this.pages = Caffeine.newBuilder()
+            .maximumWeight(maxBytes)
+            .weigher((Key key, Page page) -> Math.max(page.body().length, minPageWeight))
+            .buildAsync();
+    }
+
+    private static String hashBody(byte[] body) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException unreachable) {
+            throw new RuntimeException(unreachable);
+        }
+    }
+
+    private Page toPage(Object body) {
+        byte[] serializedBody;
+        try {
+            serializedBody = jsonMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException exception) {
+            throw new RuntimeException(exception);
+        }
+        return new Page(serializedBody, hashBody(serializedBody));
+    }
+
+    CompletableFuture<Optional<Page>> get(Key key, Supplier<CompletableFuture<Object>> pinnedPageLoader) {
+        return pages
+            .get(key, (missingKey, executor) -> pinnedPageLoader.get().thenApply(
+                body -> body == null ? null : toPage(body)
+            ))
+            .thenApply(Optional::ofNullable);
+    }
+}
@@ -9,9 +9,12 @@ dependencies {
     implementation("org.springframework.boot:spring-boot-starter-web")
     implementation("org.springframework.boot:spring-boot-starter-data-jpa")
     implementation("org.jsoup:jsoup:1.17.2")
-    implementation("rome:rome:1.0")
     runtimeOnly("org.postgresql:postgresql")
 
+    testImplementation("org.springframework.boot:spring-boot-testcontainers")
+    testImplementation("org.testcontainers:junit-jupiter")
+    testImplementation("org.testcontainers:postgresql")
+
     implementation(project(":lib:collectsynchronizer"))
     implementation(project(":lib:commonconfig"))
     implementation(project(":lib:transport"))
@@ -1,20 +1,35 @@
 package ru.dbhub;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface ArticleStorage {
     List<Article> getAfter(long boundId, int limit);
 
-    List<Article> getPage(long boundId, int page, int count);
+    List<Article> getPage(long boundId, ArticlesPageCursor cursor, int count);
+
+    List<ArticleSummary> getSummariesAfter(long boundId, int limit);
+
+    List<ArticleSummary> getSummariesPage(long boundId, ArticlesPageCursor cursor, int count);
+
+    Optional<Article> getById(long id);
 
     Optional<Long> getMaxId();
 
+    long getSafeMaxId();
+
+    long getArticlesCount();
+
     long getLastTimestampOfSource(String source);
 
     void setLastTimestampOfSource(String source, long timestamp);
 
-    boolean has(String link);
+    Set<String> getStoredLinks(Collection<String> links);
+
+    long forEachStoredLinkAfter(long boundId, Consumer<String> linkConsumer);
 
-    void addJustCollected(String source, JustCollectedArticle justCollectedArticle);
+    void addAllJustCollected(String source, List<JustCollectedArticle> justCollectedArticles);
 }
@@ -0,0 +1,47 @@
+package ru.dbhub;
+
+import org.springframework.lang.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+public record ArticlesPageCursor(
+    long timestamp,
+    long id
+) {
+    private static final int ENCODED_BYTES = 2 * Long.BYTES;
+
+    public static final ArticlesPageCursor BEFORE_ALL = new ArticlesPageCursor(Long.MAX_VALUE, Long.MAX_VALUE);
+
+    public static ArticlesPageCursor after(Article article) {
+        return new ArticlesPageCursor(article.timestamp(), article.id());
+    }
+
+    public static ArticlesPageCursor after(ArticleSummary summary) {
+        return new ArticlesPageCursor(summary.timestamp(), summary.id());
+    }
+
+    public String encode() {
+        var bytes = ByteBuffer.allocate(ENCODED_BYTES).putLong(timestamp).putLong(id).array();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    public static ArticlesPageCursor decode(@Nullable String encoded) throws BadArticlesPageCursorException {
+        if (encoded == null || encoded.isEmpty()) {
+            return BEFORE_ALL;
+        }
+
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(encoded);
+        } catch (IllegalArgumentException exception) {
+            throw new BadArticlesPageCursorException();
+        }
+        if (bytes.length != ENCODED_BYTES) {
+            throw new BadArticlesPageCursorException();
+        }
+
+        var buffer = ByteBuffer.wrap(bytes);
+        return new ArticlesPageCursor(buffer.getLong(), buffer.getLong());
+    }
+}
@@ -0,0 +1,4 @@
+package ru.dbhub;
+
+public class BadArticlesPageCursorException extends Exception {
+}
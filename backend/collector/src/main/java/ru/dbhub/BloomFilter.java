@@ -0,0 +1,76 @@
+package ru.dbhub;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+final class BloomFilter {
+    private final AtomicLongArray bits;
+
+    private final long bitsCount;
+
+    private final int hashesCount;
+
+    private final long capacity;
+
+    private final AtomicLong addedCount = new AtomicLong();
+
+    BloomFilter(long capacity, double falsePositiveRate) {
+        this.capacity = capacity;
+        long optimalBitsCount = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        bits = new AtomicLongArray(Math.toIntExact(Math.max(1, (optimalBitsCount + 63) / 64)));
+        bitsCount = 64L * bits.length();
+        hashesCount = Math.max(1, (int) Math.round((double) bitsCount / capacity * Math.log(2)));
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static long hash(String value, long seed) {
+        long hash = seed;
+        for (int i = 0; i < value.length(); ++i) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        return mix(hash ^ value.length());
+    }
+
+    private long bitIndex(long firstHash, long secondHash, int hashIdx) {
+        return Math.floorMod(firstHash + hashIdx * secondHash, bitsCount);
+    }
+
+    void add(String value) {
+        long firstHash = hash(value, 0xcbf29ce484222325L);
+        long secondHash = hash(value, 0x9e3779b97f4a7c15L);
+        boolean isNew = false;
+        for (int hashIdx = 0; hashIdx < hashesCount; ++hashIdx) {
+            long bitIdx = bitIndex(firstHash, secondHash, hashIdx);
+            long mask = 1L << (bitIdx & 63);
+            long oldWord = bits.getAndAccumulate((int) (bitIdx >>> 6), mask, (word, bit) -> word | bit);
+            isNew |= (oldWord & mask) == 0;
+        }
+        if (isNew) {
+            addedCount.incrementAndGet();
+        }
+    }
+
+    boolean isOverfilled() {
+        return addedCount.get() > capacity;
+    }
+
+    boolean mightContain(String value) {
+        long firstHash = hash(value, 0xcbf29ce484222325L);
+        long secondHash = hash(value, 0x9e3779b97f4a7c15L);
+        for (int hashIdx = 0; hashIdx < hashesCount; ++hashIdx) {
+            long bitIdx = bitIndex(firstHash, secondHash, hashIdx);
+            if ((bits.get((int) (bitIdx >>> 6)) & (1L << (bitIdx & 63))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
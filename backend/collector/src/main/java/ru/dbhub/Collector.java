@@ -1,62 +1,116 @@
 package ru.dbhub;
 
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.lang.Nullable;
 
 import java.io.IOException;
 import java.util.*;
-import java.util.regex.Pattern;
+import java.util.stream.LongStream;
 
 class Collector {
-    private final CollectorConfig config;
-
     private final ArticleStorage storage;
 
-    Collector(CollectorConfig config, ArticleStorage storage) {
-        this.config = config;
+    private final StoredLinksFilter storedLinksFilter;
+
+    private final NewArticlesNotifier newArticlesNotifier;
+
+    Collector(ArticleStorage storage, StoredLinksFilter storedLinksFilter, NewArticlesNotifier newArticlesNotifier) {
         this.storage = storage;
+        this.storedLinksFilter = storedLinksFilter;
+        this.newArticlesNotifier = newArticlesNotifier;
     }
 
-    private boolean textContainsKeyword(String text) {
-        var lowerCaseText = text.toLowerCase();
-        return config.keywords().stream()
-            .anyMatch(
-                keyword -> Pattern
-                    .compile("(^|\\s)+%s($|[.!?\\s])+"
-                    .formatted(keyword))
-                    .matcher(lowerCaseText)
-                    .find()
-            );
+    private static boolean shouldCollectByTopic(JustCollectedArticle article, KeywordMatcher keywordMatcher) {
+        return keywordMatcher.containsKeyword(article.title()) || keywordMatcher.containsKeyword(article.text());
     }
 
-    private boolean shouldCollectByTopic(JustCollectedArticle article) {
-        return textContainsKeyword(article.title()) || textContainsKeyword(article.text());
+    private Set<String> getStoredLinks(List<? extends ListedArticle> listedArticles) {
+        return storage.getStoredLinks(
+            listedArticles.stream()
+                .map(ListedArticle::link)
+                .filter(storedLinksFilter::mightBeStored)
+                .toList()
+        );
+    }
+
+    private static OptionalLong getLastTimestamp(
+        List<? extends ListedArticle> listedArticlesPage, List<JustCollectedArticle> loadedArticles
+    ) {
+        if (listedArticlesPage.isEmpty()) {
+            return OptionalLong.empty();
+        }
+        var lastKnownTimestamp = listedArticlesPage.getLast().knownTimestamp();
+        if (lastKnownTimestamp.isPresent() || loadedArticles.isEmpty()) {
+            return lastKnownTimestamp;
+        }
+        return OptionalLong.of(loadedArticles.getLast().timestamp());
     }
 
-    @Transactional(rollbackFor = {RuntimeException.class, IOException.class}, propagation = Propagation.NESTED)
-    void collect(String sourceName, NewsSource source, boolean requiresFiltering) throws IOException {
+    <L extends ListedArticle> int collect(
+        String sourceName, NewsSource<L> source, @Nullable KeywordMatcher keywordMatcher, int knownLinksToStop
+    ) throws IOException {
         long oldLastTimestamp = storage.getLastTimestampOfSource(sourceName);
-        long newLastTimestamp = 0;
+        long newLastTimestamp = oldLastTimestamp;
+        Set<String> collectedLinks = new HashSet<>();
+        int knownLinksInRow = 0;
+        int publishedArticlesCount = 0;
 
-        while (true) {
-            var articlesPage = source.nextArticlesPage();
-            if (newLastTimestamp == 0 && !articlesPage.isEmpty()) {
-                newLastTimestamp = articlesPage.getFirst().timestamp();
+        boolean shouldStopCollecting = false;
+        while (!shouldStopCollecting) {
+            var listedArticlesPage = source.nextArticlesPage(oldLastTimestamp);
+
+            var freshListedArticles = listedArticlesPage.stream()
+                .takeWhile(article -> article.knownTimestamp().orElse(oldLastTimestamp) >= oldLastTimestamp)
+                .filter(article -> collectedLinks.add(article.link()))
+                .toList();
+            var storedLinks = getStoredLinks(freshListedArticles);
+
+            List<L> listedArticlesToLoad = new ArrayList<>();
+            boolean hasReachedStoredArticleOfUnknownTime = false;
+            boolean hasReachedKnownLinksRun = false;
+            for (var listedArticle : freshListedArticles) {
+                if (!storedLinks.contains(listedArticle.link())) {
+                    listedArticlesToLoad.add(listedArticle);
+                    knownLinksInRow = 0;
+                } else if (listedArticle.knownTimestamp().isEmpty()) {
+                    hasReachedStoredArticleOfUnknownTime = true;
+                } else if (knownLinksToStop > 0 && ++knownLinksInRow >= knownLinksToStop) {
+                    hasReachedKnownLinksRun = true;
+                    break;
+                }
             }
 
-            articlesPage.stream()
-                .takeWhile(article -> article.timestamp() >= oldLastTimestamp)
-                .filter(article -> !requiresFiltering || shouldCollectByTopic(article))
-                .filter(article -> !storage.has(article.link()))
-                .forEach(article -> storage.addJustCollected(sourceName, article));
+            var loadedArticles = source.loadArticles(listedArticlesToLoad);
+
+            var publishedArticles = loadedArticles.stream()
+                .filter(article -> article.timestamp() >= oldLastTimestamp)
+                .toList();
+            publishedArticlesCount += publishedArticles.size();
 
-            boolean shouldStopCollecting = articlesPage.isEmpty()
-                || articlesPage.getLast().timestamp() < oldLastTimestamp;
-            if (shouldStopCollecting) {
-                break;
+            var newArticles = publishedArticles.stream()
+                .filter(article -> keywordMatcher == null || shouldCollectByTopic(article, keywordMatcher))
+                .toList();
+            if (!newArticles.isEmpty()) {
+                storage.addAllJustCollected(sourceName, newArticles);
+                storedLinksFilter.addAll(newArticles.stream().map(JustCollectedArticle::link).toList());
+                newArticlesNotifier.notifyArticlesAdded();
             }
+
+            newLastTimestamp = LongStream.concat(
+                listedArticlesPage.stream().map(ListedArticle::knownTimestamp).flatMapToLong(OptionalLong::stream),
+                loadedArticles.stream().mapToLong(JustCollectedArticle::timestamp)
+            ).reduce(newLastTimestamp, Math::max);
+
+            var lastTimestamp = getLastTimestamp(listedArticlesPage, loadedArticles);
+            shouldStopCollecting = hasReachedStoredArticleOfUnknownTime
+                || hasReachedKnownLinksRun
+                || lastTimestamp.isEmpty()
+                || lastTimestamp.getAsLong() < oldLastTimestamp;
         }
 
-        storage.setLastTimestampOfSource(sourceName, newLastTimestamp);
+        if (newLastTimestamp > oldLastTimestamp) {
+            storage.setLastTimestampOfSource(sourceName, newLastTimestamp);
+        }
+        source.commit();
+        return publishedArticlesCount;
     }
 }
@@ -1,11 +1,24 @@
 package ru.dbhub;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import org.springframework.lang.Nullable;
 
+import java.util.Map;
 import java.util.Set;
 
 record CollectorConfig(
     @NotNull Long rate,
-    @NotNull Set<@NotNull String> keywords
+    @NotNull Set<@NotNull String> keywords,
+    @Nullable @Positive Integer maxParallelSources,
+    @Nullable @Valid HostLimits defaultHostLimits,
+    @Nullable Map<@NotNull String, @NotNull @Valid HostLimits> hostLimits,
+    @Nullable @Positive Integer sourceFailuresToBackOff,
+    @Nullable @Positive Long minSourceBackoff,
+    @Nullable @Positive Long maxSourceBackoff,
+    @Nullable @Positive Long minSourceInterval,
+    @Nullable @Positive Long maxSourceInterval,
+    @Nullable @Positive Double targetArticlesPerCollect
 ) {
 }
@@ -10,6 +10,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.context.event.EventListener;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.TransactionSynchronization;
@@ -18,10 +19,12 @@ import org.springframework.transaction.support.TransactionSynchronizationManager
 import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Component
 public class CollectorService {
@@ -29,10 +32,26 @@ public class CollectorService {
 
     private static final long ARTICLE_ID_BEFORE_ALL = 0;
 
-    private static final long ARTICLE_ID_AFTER_ALL = Long.MAX_VALUE;
-
     private static final long RETRY_FIND_CONFIGS_RATE = 60;
 
+    private static final long MAX_WAIT_FOR_ARTICLES_MILLIS = 60 * 1000;
+
+    private static final int DEFAULT_MAX_PARALLEL_SOURCES = 32;
+
+    private static final int DEFAULT_SOURCE_FAILURES_TO_BACK_OFF = 3;
+
+    private static final long DEFAULT_MAX_SOURCE_BACKOFF = 24 * 60 * 60;
+
+    private static final int MAX_SOURCE_BACKOFF_DOUBLINGS = 30;
+
+    private static final int DEFAULT_KNOWN_LINKS_TO_STOP = 0;
+
+    private static final long DEFAULT_MAX_SOURCE_INTERVAL = 6 * 60 * 60;
+
+    private static final double DEFAULT_TARGET_ARTICLES_PER_COLLECT = 1;
+
+    private static final double PUBLICATION_RATE_SMOOTHING = 0.3;
+
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
     @Autowired
@@ -43,6 +62,8 @@ public class CollectorService {
 
     private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
 
+    private final ExecutorService sourceCollectExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
     @Autowired
     @Lazy
     private CollectorService self;
@@ -53,9 +74,26 @@ public class CollectorService {
     @Autowired
     private ArticleStorage articleStorage;
 
+    @Autowired
+    private SourceHealthStorage sourceHealthStorage;
+
+    @Autowired
+    private SourceScheduleStorage sourceScheduleStorage;
+
+    @Autowired
+    private StoredLinksFilter storedLinksFilter;
+
+    @Autowired
+    private NewArticlesNotifier newArticlesNotifier;
+
+    @Autowired
+    private PageFetcher pageFetcher;
+
     @Autowired
     private CollectSynchronizer collectSynchronizer;
 
+    private Map<Set<String>, KeywordMatcher> keywordMatchers = Map.of();
+
     private <C> C parseConfig(JsonNode configJson, Class<C> configClass) throws BadConfigFormatException {
         C result;
         try {
@@ -75,7 +113,7 @@ public class CollectorService {
         return parseConfig(config, CollectorConfig.class);
     }
 
-    private NewsSource createNewsSource(NewsSourceConfig sourceConfig) throws BadConfigException {
+    private NewsSource<?> createNewsSource(String name, NewsSourceConfig sourceConfig) throws BadConfigException {
         Class<?> sourceClass;
         try {
             var packageName = getClass().getPackageName();
@@ -92,7 +130,7 @@ public class CollectorService {
 
         Constructor<?> sourceConstructorOfConfig;
         try {
-            sourceConstructorOfConfig = sourceClass.getConstructor(sourceConfigClass);
+            sourceConstructorOfConfig = sourceClass.getConstructor(sourceConfigClass, String.class, PageFetcher.class);
         } catch (NoSuchMethodException exception) {
             throw new BadConfigSourceTypeException();
         }
@@ -100,7 +138,7 @@ public class CollectorService {
         var parsedConfig = parseConfig(sourceConfig.config(), sourceConfigClass);
 
         try {
-            return (NewsSource) sourceConstructorOfConfig.newInstance(parsedConfig);
+            return (NewsSource<?>) sourceConstructorOfConfig.newInstance(parsedConfig, name, pageFetcher);
         } catch (InstantiationException | IllegalAccessException | InvocationTargetException exception) {
             throw new BadConfigSourceTypeException();
         }
@@ -140,18 +178,27 @@ public class CollectorService {
         }
 
         for (var sourceNameToConfig : sourceConfigs.entrySet()) {
-            createNewsSource(sourceNameToConfig.getValue());
+            createNewsSource(sourceNameToConfig.getKey(), sourceNameToConfig.getValue());
             setNewsSourceConfig(sourceNameToConfig.getKey(), sourceNameToConfig.getValue());
+            sourceHealthStorage.removeSourceHealth(sourceNameToConfig.getKey());
+            sourceScheduleStorage.removeSourceSchedule(sourceNameToConfig.getKey());
         }
     }
 
     @Transactional
     public void removeNewsSourceConfigs(List<String> sourceNames) {
         sourceNames.forEach(configsStorage::removeNewsSourceConfig);
+        sourceNames.forEach(sourceHealthStorage::removeSourceHealth);
+        sourceNames.forEach(sourceScheduleStorage::removeSourceSchedule);
     }
 
     private long getCurrentBoundArticleId() {
-        return articleStorage.getMaxId().orElse(0L);
+        return articleStorage.getSafeMaxId();
+    }
+
+    private long getPageBoundArticleId(long boundId) {
+        long currentBoundId = getCurrentBoundArticleId();
+        return boundId == NO_BOUND_ARTICLE_ID ? currentBoundId : Math.min(boundId, currentBoundId);
     }
 
     @Transactional
@@ -159,18 +206,97 @@ public class CollectorService {
         var articles = articleStorage.getAfter(boundId == NO_BOUND_ARTICLE_ID ? ARTICLE_ID_BEFORE_ALL : boundId, limit);
         return new ArticlesAndBoundId(
             articles,
-            articles.isEmpty() ? getCurrentBoundArticleId() : articles.getLast().id()
+            articles.isEmpty() ? getCurrentBoundArticleId() : articles.getLast().id(),
+            null
         );
     }
 
     @Transactional
-    public ArticlesAndBoundId getArticlesPage(long boundId, int page, int count) {
+    public long getLatestArticleId() {
+        return getCurrentBoundArticleId();
+    }
+
+    private <T> T waitForArticles(Supplier<T> articlesFetcher, Predicate<T> hasArticles, long waitMillis) {
+        long deadline = System.currentTimeMillis() + Math.min(waitMillis, MAX_WAIT_FOR_ARTICLES_MILLIS);
+        while (true) {
+            long notifierVersion = newArticlesNotifier.getVersion();
+            var articles = articlesFetcher.get();
+
+            long remainingMillis = deadline - System.currentTimeMillis();
+            if (hasArticles.test(articles) || remainingMillis <= 0) {
+                return articles;
+            }
+
+            try {
+                newArticlesNotifier.awaitArticlesAddedAfter(notifierVersion, remainingMillis);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                return articles;
+            }
+        }
+    }
+
+    public ArticlesAndBoundId waitForArticlesAfter(long boundId, int limit, long waitMillis) {
+        return waitForArticles(
+            () -> self.getArticlesAfter(boundId, limit),
+            articlesAndBoundId -> !articlesAndBoundId.articles().isEmpty(),
+            waitMillis
+        );
+    }
+
+    public ArticleSummariesAndBoundId waitForArticleSummariesAfter(long boundId, int limit, long waitMillis) {
+        return waitForArticles(
+            () -> self.getArticleSummariesAfter(boundId, limit),
+            summariesAndBoundId -> !summariesAndBoundId.articles().isEmpty(),
+            waitMillis
+        );
+    }
+
+    @Transactional
+    public ArticlesAndBoundId getArticlesPage(
+        long boundId, @Nullable String cursor, int count
+    ) throws BadArticlesPageCursorException {
+        long pageBoundId = getPageBoundArticleId(boundId);
+        var articles = articleStorage.getPage(pageBoundId, ArticlesPageCursor.decode(cursor), count);
         return new ArticlesAndBoundId(
-            articleStorage.getPage(boundId == NO_BOUND_ARTICLE_ID ? ARTICLE_ID_AFTER_ALL : boundId, page, count),
-            boundId == NO_BOUND_ARTICLE_ID ? getCurrentBoundArticleId() : boundId
+            articles,
+            pageBoundId,
+            articles.isEmpty() || articles.size() < count ? null : ArticlesPageCursor.after(articles.getLast()).encode()
         );
     }
 
+    @Transactional
+    public ArticleSummariesAndBoundId getArticleSummariesAfter(long boundId, int limit) {
+        var summaries = articleStorage.getSummariesAfter(
+            boundId == NO_BOUND_ARTICLE_ID ? ARTICLE_ID_BEFORE_ALL : boundId, limit
+        );
+        return new ArticleSummariesAndBoundId(
+            summaries,
+            summaries.isEmpty() ? getCurrentBoundArticleId() : summaries.getLast().id(),
+            null
+        );
+    }
+
+    @Transactional
+    public ArticleSummariesAndBoundId getArticleSummariesPage(
+        long boundId, @Nullable String cursor, int count
+    ) throws BadArticlesPageCursorException {
+        long pageBoundId = getPageBoundArticleId(boundId);
+        var summaries = articleStorage.getSummariesPage(pageBoundId, ArticlesPageCursor.decode(cursor), count);
+        return new ArticleSummariesAndBoundId(
+            summaries,
+            pageBoundId,
+            summaries.isEmpty() || summaries.size() < count
+                ? null
+                : ArticlesPageCursor.after(summaries.getLast()).encode()
+        );
+    }
+
+    @Transactional
+    public Optional<Article> getArticle(long id) {
+        return articleStorage.getById(id);
+    }
+
     private void scheduleCollect(long delay) {
         scheduler.schedule(
             () -> {
@@ -185,14 +311,174 @@ public class CollectorService {
         );
     }
 
+    private Map<Set<String>, KeywordMatcher> compileKeywordMatchers(
+        CollectorConfig collectorConfig, Collection<NewsSourceConfig> sourceConfigs
+    ) {
+        Map<Set<String>, KeywordMatcher> result = new HashMap<>();
+        var oldKeywordMatchers = keywordMatchers;
+        Stream.concat(
+            Stream.of(collectorConfig.keywords()),
+            sourceConfigs.stream().map(NewsSourceConfig::keywords).filter(Objects::nonNull)
+        ).forEach(keywords -> result.computeIfAbsent(
+            keywords,
+            newKeywords -> Objects.requireNonNullElseGet(
+                oldKeywordMatchers.get(newKeywords), () -> new KeywordMatcher(newKeywords)
+            )
+        ));
+        keywordMatchers = result;
+        return result;
+    }
+
+    private static @Nullable KeywordMatcher getKeywordMatcher(
+        CollectorConfig collectorConfig,
+        NewsSourceConfig sourceConfig,
+        Map<Set<String>, KeywordMatcher> keywordMatchers
+    ) {
+        if (!sourceConfig.requiresFiltering()) {
+            return null;
+        }
+        return keywordMatchers.get(
+            Objects.requireNonNullElse(sourceConfig.keywords(), collectorConfig.keywords())
+        );
+    }
+
+    private static boolean isBackingOff(@Nullable SourceHealth sourceHealth, long now) {
+        return sourceHealth != null && sourceHealth.retryAt() > now;
+    }
+
+    private void updateSourceHealth(
+        String name, @Nullable SourceHealth sourceHealth, boolean hasSucceeded, CollectorConfig collectorConfig
+    ) {
+        if (hasSucceeded) {
+            if (sourceHealth != null) {
+                logger.info("Source {} has recovered", name);
+                sourceHealthStorage.removeSourceHealth(name);
+            }
+            return;
+        }
+
+        int consecutiveFailures = (sourceHealth == null ? 0 : sourceHealth.consecutiveFailures()) + 1;
+        int failuresToBackOff = Objects.requireNonNullElse(
+            collectorConfig.sourceFailuresToBackOff(), DEFAULT_SOURCE_FAILURES_TO_BACK_OFF
+        );
+
+        long retryAt = 0;
+        if (consecutiveFailures >= failuresToBackOff) {
+            long minBackoff = Objects.requireNonNullElse(collectorConfig.minSourceBackoff(), collectorConfig.rate());
+            long maxBackoff = Objects.requireNonNullElse(
+                collectorConfig.maxSourceBackoff(), DEFAULT_MAX_SOURCE_BACKOFF
+            );
+            int doublings = Math.min(consecutiveFailures - failuresToBackOff, MAX_SOURCE_BACKOFF_DOUBLINGS);
+            long backoff = minBackoff > maxBackoff >> doublings ? maxBackoff : minBackoff << doublings;
+            retryAt = Instant.now().getEpochSecond() + backoff;
+            logger.warn(
+                "Source {} failed {} times in a row, backing off for {} seconds", name, consecutiveFailures, backoff
+            );
+        }
+
+        sourceHealthStorage.setSourceHealth(name, new SourceHealth(consecutiveFailures, retryAt));
+    }
+
+    private static boolean isDue(@Nullable SourceSchedule sourceSchedule, long now, CollectorConfig collectorConfig) {
+        return sourceSchedule == null || sourceSchedule.nextDueAt() <= now + collectorConfig.rate() / 2;
+    }
+
+    private void updateSourceSchedule(
+        String name,
+        @Nullable SourceSchedule sourceSchedule,
+        int publishedArticlesCount,
+        long now,
+        CollectorConfig collectorConfig
+    ) {
+        long minInterval = Objects.requireNonNullElse(collectorConfig.minSourceInterval(), collectorConfig.rate());
+        long maxInterval = Math.max(
+            minInterval, Objects.requireNonNullElse(collectorConfig.maxSourceInterval(), DEFAULT_MAX_SOURCE_INTERVAL)
+        );
+
+        double articlesPerSecond;
+        long interval;
+        if (sourceSchedule == null) {
+            articlesPerSecond = 0;
+            interval = minInterval;
+        } else {
+            long elapsed = Math.max(1, now - sourceSchedule.lastCollectedAt());
+            articlesPerSecond = PUBLICATION_RATE_SMOOTHING * publishedArticlesCount / elapsed
+                + (1 - PUBLICATION_RATE_SMOOTHING) * sourceSchedule.articlesPerSecond();
+
+            if (articlesPerSecond > 0) {
+                double targetArticlesPerCollect = Objects.requireNonNullElse(
+                    collectorConfig.targetArticlesPerCollect(), DEFAULT_TARGET_ARTICLES_PER_COLLECT
+                );
+                interval = (long) (targetArticlesPerCollect / articlesPerSecond);
+            } else {
+                interval = 2 * Math.max(1, sourceSchedule.nextDueAt() - sourceSchedule.lastCollectedAt());
+            }
+            interval = Math.clamp(interval, minInterval, maxInterval);
+        }
+
+        logger.debug(
+            "Source {} published {} articles, next collect in {} seconds", name, publishedArticlesCount, interval
+        );
+        sourceScheduleStorage.setSourceSchedule(name, new SourceSchedule(now, now + interval, articlesPerSecond));
+    }
+
+    private void collectSource(
+        Collector collector, String name, NewsSourceConfig sourceConfig, @Nullable KeywordMatcher keywordMatcher,
+        @Nullable SourceHealth sourceHealth, @Nullable SourceSchedule sourceSchedule, long now,
+        CollectorConfig collectorConfig, Semaphore parallelSourcesLimit
+    ) {
+        try {
+            parallelSourcesLimit.acquire();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        boolean hasSucceeded = false;
+        int publishedArticlesCount = 0;
+        try {
+            if (sourceHealth != null && sourceHealth.retryAt() > 0) {
+                logger.info("Probing source {} after {} failures", name, sourceHealth.consecutiveFailures());
+            }
+            var source = createNewsSource(name, sourceConfig);
+            try {
+                publishedArticlesCount = collector.collect(
+                    name,
+                    source,
+                    keywordMatcher,
+                    Objects.requireNonNullElse(sourceConfig.knownLinksToStop(), DEFAULT_KNOWN_LINKS_TO_STOP)
+                );
+            } finally {
+                source.close();
+            }
+            hasSucceeded = true;
+        } catch (BadConfigException exception) {
+            logger.error("Bad config of source {}", name, exception);
+        } catch (IOException exception) {
+            logger.error("IOException trying to collect news from source {}", name, exception);
+        } catch (RuntimeException exception) {
+            logger.error("Failed to collect news from source {}", name, exception);
+        } finally {
+            parallelSourcesLimit.release();
+        }
+
+        try {
+            updateSourceHealth(name, sourceHealth, hasSucceeded, collectorConfig);
+            if (hasSucceeded) {
+                updateSourceSchedule(name, sourceSchedule, publishedArticlesCount, now, collectorConfig);
+            }
+        } catch (RuntimeException exception) {
+            logger.error("Failed to update health or schedule of source {}", name, exception);
+        }
+    }
+
     @EventListener(ApplicationReadyEvent.class)
     public void collectAsync() {
         scheduleCollect(0);
     }
 
-    @Transactional
     public void collect() {
-        var collectorConfigStringOptional = getCollectorConfig();
+        var collectorConfigStringOptional = self.getCollectorConfig();
         if (collectorConfigStringOptional.isEmpty()) {
             scheduleCollect(RETRY_FIND_CONFIGS_RATE);
             return;
@@ -207,30 +493,52 @@ public class CollectorService {
 
         scheduleCollect(collectorConfig.rate());
 
-        if (!collectSynchronizer.shouldCollect()) {
-            logger.info("Not collecting news because the synchronizer decided so");
-            return;
-        }
+        var collectShard = collectSynchronizer.getShard();
 
-        logger.info("Starting to collect news");
+        logger.info("Starting to collect news as one of {} collectors", collectShard.liveMemberIds().size());
 
-        var collector = new Collector(collectorConfig, articleStorage);
+        storedLinksFilter.catchUp();
 
-        getNewsSourceConfigs().forEach((name, sourceConfig) -> {
-            NewsSource source;
-            try {
-                source = createNewsSource(sourceConfig);
-            } catch (BadConfigException exception) {
-                throw new RuntimeException(exception);
-            }
+        pageFetcher.setHostLimits(collectorConfig.defaultHostLimits(), collectorConfig.hostLimits());
 
-            try {
-                collector.collect(name, source, sourceConfig.requiresFiltering());
-            } catch (IOException exception) {
-                logger.error("IOException trying to collect news from source {}", name, exception);
-            }
-        });
+        var collector = new Collector(articleStorage, storedLinksFilter, newArticlesNotifier);
+        var parallelSourcesLimit = new Semaphore(
+            Objects.requireNonNullElse(collectorConfig.maxParallelSources(), DEFAULT_MAX_PARALLEL_SOURCES)
+        );
 
-        logger.info("Finished collecting news");
+        var sourceConfigs = self.getNewsSourceConfigs();
+        var keywordMatchers = compileKeywordMatchers(collectorConfig, sourceConfigs.values());
+        var sourceHealths = sourceHealthStorage.getSourceHealths();
+        var sourceSchedules = sourceScheduleStorage.getSourceSchedules();
+        var now = Instant.now().getEpochSecond();
+
+        var sourceCollects = sourceConfigs.entrySet().stream()
+            .filter(nameToSourceConfig -> collectShard.owns(nameToSourceConfig.getKey()))
+            .filter(nameToSourceConfig -> {
+                var isBackingOff = isBackingOff(sourceHealths.get(nameToSourceConfig.getKey()), now);
+                if (isBackingOff) {
+                    logger.debug("Skipping source {} which is backing off", nameToSourceConfig.getKey());
+                }
+                return !isBackingOff;
+            })
+            .filter(nameToSourceConfig -> isDue(sourceSchedules.get(nameToSourceConfig.getKey()), now, collectorConfig))
+            .map(nameToSourceConfig -> CompletableFuture.runAsync(
+                () -> collectSource(
+                    collector,
+                    nameToSourceConfig.getKey(),
+                    nameToSourceConfig.getValue(),
+                    getKeywordMatcher(collectorConfig, nameToSourceConfig.getValue(), keywordMatchers),
+                    sourceHealths.get(nameToSourceConfig.getKey()),
+                    sourceSchedules.get(nameToSourceConfig.getKey()),
+                    now,
+                    collectorConfig,
+                    parallelSourcesLimit
+                ),
+                sourceCollectExecutor
+            ))
+            .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(sourceCollects).join();
+
+        logger.info("Finished collecting news, fetch statistics: {}", pageFetcher.getStatistics());
     }
 }
@@ -0,0 +1,210 @@
+package ru.dbhub;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.Nullable;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.util.*;
+
+import static javax.xml.stream.XMLStreamConstants.*;
+
+final class FeedParser {
+    private static final Set<String> RSS_NAMESPACES = Set.of(
+        "",
+        "http://purl.org/rss/1.0/",
+        "http://backend.userland.com/rss2",
+        "http://my.netscape.com/rdf/simple/0.9/"
+    );
+
+    private static final Set<String> ATOM_NAMESPACES = Set.of(
+        "http://www.w3.org/2005/Atom",
+        "http://purl.org/atom/ns#"
+    );
+
+    private static final String CONTENT_NAMESPACE = "http://purl.org/rss/1.0/modules/content/";
+
+    private static final String DUBLIN_CORE_NAMESPACE = "http://purl.org/dc/elements/1.1/";
+
+    private static final Set<String> ENTRY_ELEMENTS = Set.of("rss:item", "atom:entry");
+
+    private static final List<DateTimeFormatter> DATE_TIME_FORMATTERS = List.of(
+        makeDateTimeFormatter("[EEE, ]d MMM yy HH:mm[:ss] zzz"),
+        makeDateTimeFormatter("[EEE, ]d MMM yy HH:mm[:ss] Z"),
+        DateTimeFormatter.RFC_1123_DATE_TIME,
+        DateTimeFormatter.ISO_DATE_TIME,
+        makeDateTimeFormatter("[EEE, ]d MMM yyyy HH:mm[:ss] zzz"),
+        makeDateTimeFormatter("[EEE, ]d MMM yyyy HH:mm[:ss] Z")
+    );
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+    private static final Logger logger = LoggerFactory.getLogger(FeedParser.class);
+
+    private FeedParser() {
+    }
+
+    private static DateTimeFormatter makeDateTimeFormatter(String pattern) {
+        return new DateTimeFormatterBuilder()
+            .parseCaseInsensitive()
+            .appendPattern(pattern)
+            .toFormatter(Locale.ENGLISH);
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+        var factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        return factory;
+    }
+
+    private static String getQualifiedName(XMLStreamReader reader) {
+        var namespace = Objects.requireNonNullElse(reader.getNamespaceURI(), "");
+        String prefix;
+        if (RSS_NAMESPACES.contains(namespace)) {
+            prefix = "rss";
+        } else if (ATOM_NAMESPACES.contains(namespace)) {
+            prefix = "atom";
+        } else if (namespace.equals(CONTENT_NAMESPACE)) {
+            prefix = "content";
+        } else if (namespace.equals(DUBLIN_CORE_NAMESPACE)) {
+            prefix = "dc";
+        } else {
+            prefix = "{" + namespace + "}";
+        }
+        return prefix + ":" + reader.getLocalName();
+    }
+
+    private static String readText(XMLStreamReader reader) throws XMLStreamException {
+        var text = new StringBuilder();
+        for (int depth = 1; depth > 0; ) {
+            switch (reader.next()) {
+                case START_ELEMENT -> ++depth;
+                case END_ELEMENT -> --depth;
+                case CHARACTERS, CDATA, SPACE, ENTITY_REFERENCE -> text.append(reader.getText());
+                default -> {
+                }
+            }
+        }
+        return text.toString().strip();
+    }
+
+    private static @Nullable Long parseTimestamp(@Nullable String rawTime) {
+        if (rawTime == null) {
+            return null;
+        }
+        for (var dateTimeFormatter : DATE_TIME_FORMATTERS) {
+            try {
+                return ZonedDateTime.from(dateTimeFormatter.parse(rawTime)).toEpochSecond();
+            } catch (DateTimeException ignored) {
+            }
+        }
+        try {
+            return LocalDateTime.parse(rawTime, DateTimeFormatter.ISO_LOCAL_DATE_TIME)
+                .toEpochSecond(ZoneOffset.UTC);
+        } catch (DateTimeException ignored) {
+        }
+        try {
+            return LocalDate.parse(rawTime, DateTimeFormatter.ISO_LOCAL_DATE)
+                .atStartOfDay(ZoneOffset.UTC)
+                .toEpochSecond();
+        } catch (DateTimeException ignored) {
+        }
+        return null;
+    }
+
+    private static @Nullable JustCollectedArticle readEntry(XMLStreamReader reader) throws XMLStreamException {
+        String link = null;
+        String title = null;
+        String description = null;
+        String content = null;
+        String published = null;
+        String dublinCoreDate = null;
+        String updated = null;
+
+        while (reader.next() != END_ELEMENT) {
+            if (reader.getEventType() != START_ELEMENT) {
+                continue;
+            }
+
+            switch (getQualifiedName(reader)) {
+                case "rss:link" -> {
+                    var linkText = readText(reader);
+                    if (link == null) {
+                        link = linkText;
+                    }
+                }
+                case "atom:link" -> {
+                    var href = reader.getAttributeValue(null, "href");
+                    var rel = reader.getAttributeValue(null, "rel");
+                    readText(reader);
+                    if (link == null && href != null && (rel == null || rel.equals("alternate"))) {
+                        link = href;
+                    }
+                }
+                case "rss:title", "atom:title" -> title = readText(reader);
+                case "rss:description", "atom:summary" -> description = readText(reader);
+                case "content:encoded", "atom:content" -> content = readText(reader);
+                case "rss:pubDate", "atom:published", "atom:issued" -> published = readText(reader);
+                case "dc:date" -> dublinCoreDate = readText(reader);
+                case "atom:updated", "atom:modified" -> updated = readText(reader);
+                default -> readText(reader);
+            }
+        }
+
+        var rawTime = published != null ? published : (dublinCoreDate != null ? dublinCoreDate : updated);
+        var timestamp = parseTimestamp(rawTime == null ? null : rawTime.strip());
+        if (link == null || timestamp == null) {
+            logger.error("Feed entry {} has no link or publication time", link);
+            return null;
+        }
+
+        return new JustCollectedArticle(
+            link,
+            title == null ? "" : title,
+            description == null ? (content == null ? "" : content) : description,
+            timestamp
+        );
+    }
+
+    static List<JustCollectedArticle> parseUntilOlderThan(byte[] feed, long oldLastTimestamp) throws IOException {
+        List<JustCollectedArticle> articles = new ArrayList<>();
+        try {
+            var reader = XML_INPUT_FACTORY.createXMLStreamReader(new ByteArrayInputStream(feed));
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() != START_ELEMENT || !ENTRY_ELEMENTS.contains(getQualifiedName(reader))) {
+                        continue;
+                    }
+
+                    var article = readEntry(reader);
+                    if (article == null) {
+                        continue;
+                    }
+                    articles.add(article);
+                    if (article.timestamp() < oldLastTimestamp) {
+                        break;
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException exception) {
+            throw new IOException(exception);
+        }
+        return articles;
+    }
+}
@@ -0,0 +1,117 @@
+package ru.dbhub;
+
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.QueryParser;
+import org.springframework.lang.Nullable;
+import org.springframework.web.util.UriTemplate;
+
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+final class HTMLExtractionPlan {
+    private static final Pattern TITLE_END_PATTERN = Pattern.compile("[.!?\\n]| https://");
+
+    private static final List<String> RUSSIAN_MONTH_NAMES_GEN = List.of(
+        "января", "февраля", "марта", "апреля", "мая", "июня",
+        "июля", "августа", "сентября", "октября", "ноября", "декабря"
+    );
+
+    private static final int MAX_CACHED_PLANS = 256;
+
+    private static final Map<HTMLNewsSource.Config, HTMLExtractionPlan> plans = Collections.synchronizedMap(
+        new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<HTMLNewsSource.Config, HTMLExtractionPlan> eldest) {
+                return size() > MAX_CACHED_PLANS;
+            }
+        }
+    );
+
+    final UriTemplate pageUrlTemplate;
+
+    final Evaluator itemSelector;
+
+    final Evaluator linkSelector;
+
+    final @Nullable Evaluator titleSelector;
+
+    final Evaluator textSelector;
+
+    final Evaluator timeSelector;
+
+    final @Nullable Evaluator nextPageLinkSelector;
+
+    final DateTimeFormatter timeFormatter;
+
+    final @Nullable DateTimeFormatter byDatePagingFormatter;
+
+    final @Nullable ZoneId timeZone;
+
+    private HTMLExtractionPlan(HTMLNewsSource.Config config) {
+        pageUrlTemplate = new UriTemplate(config.urlWithPageVar());
+        itemSelector = QueryParser.parse(config.itemSelector());
+        linkSelector = QueryParser.parse(config.linkSelector());
+        titleSelector = config.titleSelector() == null ? null : QueryParser.parse(config.titleSelector());
+        textSelector = QueryParser.parse(config.textSelector());
+        timeSelector = QueryParser.parse(config.timeSelector());
+        nextPageLinkSelector = config.nextPageLinkSelector() == null
+            ? null
+            : QueryParser.parse(config.nextPageLinkSelector());
+        timeFormatter = makeDateTimeFormatter(config.timeFormat());
+        byDatePagingFormatter = config.byDatePagingFormat() == null
+            ? null
+            : makeDateTimeFormatter(config.byDatePagingFormat());
+        timeZone = config.timeZone() == null ? null : ZoneId.of(config.timeZone());
+    }
+
+    static HTMLExtractionPlan of(HTMLNewsSource.Config config) {
+        return plans.computeIfAbsent(config, HTMLExtractionPlan::new);
+    }
+
+    private static DateTimeFormatter makeDateTimeFormatter(String timeFormat) {
+        if ("<ISO>".equals(timeFormat)) {
+            return DateTimeFormatter.ISO_DATE_TIME;
+        }
+        return DateTimeFormatter.ofPattern(timeFormat);
+    }
+
+    static String translateRussianMonthNamesGen(String rawTime) {
+        var lowerCaseRawTime = rawTime.toLowerCase();
+        StringBuilder result = null;
+        int copiedUntil = 0;
+
+        for (int i = 0; i < lowerCaseRawTime.length(); ++i) {
+            for (int month = 0; month < RUSSIAN_MONTH_NAMES_GEN.size(); ++month) {
+                var monthName = RUSSIAN_MONTH_NAMES_GEN.get(month);
+                if (lowerCaseRawTime.startsWith(monthName, i)) {
+                    if (result == null) {
+                        result = new StringBuilder(lowerCaseRawTime.length());
+                    }
+                    result.append(lowerCaseRawTime, copiedUntil, i);
+                    if (month < 9) {
+                        result.append('0');
+                    }
+                    result.append(month + 1);
+                    i += monthName.length() - 1;
+                    copiedUntil = i + 1;
+                    break;
+                }
+            }
+        }
+
+        if (result == null) {
+            return lowerCaseRawTime;
+        }
+        return result.append(lowerCaseRawTime, copiedUntil, lowerCaseRawTime.length()).toString();
+    }
+
+    static String cutTitleFromText(String text) {
+        var titleEnd = TITLE_END_PATTERN.matcher(text);
+        return titleEnd.find() ? text.substring(0, titleEnd.start()) : text;
+    }
+}
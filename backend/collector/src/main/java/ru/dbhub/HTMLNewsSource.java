@@ -1,25 +1,34 @@
 package ru.dbhub;
 
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Element;
 import org.jsoup.parser.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.lang.Nullable;
-import org.springframework.web.util.UriTemplate;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.text.ParsePosition;
 import java.time.*;
-import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoField;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.*;
 
 import static java.util.Objects.requireNonNull;
+import static java.util.Objects.requireNonNullElse;
+
+class HTMLNewsSource extends PageLimitedNewsSource<HTMLNewsSource.ListedHTMLArticle> {
+    private static final int DEFAULT_MAX_PARALLEL_LINK_LOADS = 8;
 
-class HTMLNewsSource extends PageLimitedNewsSource {
     public record Config(
         @NotNull String urlWithPageVar,
         @NotNull String itemSelector,
@@ -38,10 +47,21 @@ class HTMLNewsSource extends PageLimitedNewsSource {
         @Nullable String nextPageLinkSelector,
         @Nullable String byDatePagingFormat,
         int attemptsToFindNonEmptyPage,
-        boolean removeTimeFromTitleAndText
+        boolean removeTimeFromTitleAndText,
+        @Nullable @Positive Integer maxParallelLinkLoads,
+        @Nullable @PositiveOrZero Integer prefetchPages
     ) {
     }
 
+    record ListedHTMLArticle(
+        String link,
+        OptionalLong knownTimestamp,
+        Element html,
+        String pageUrl,
+        int idx
+    ) implements ListedArticle {
+    }
+
     public class ArticleIOException extends IOException {
         public ArticleIOException(String message) {
             super(makeFullErrorMessage(message));
@@ -54,24 +74,48 @@ class HTMLNewsSource extends PageLimitedNewsSource {
 
     private final Config config;
 
+    private final HTMLExtractionPlan plan;
+
+    private final String name;
+
+    private final PageFetcher pageFetcher;
+
+    private final PagePrefetcher pagePrefetcher;
+
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
+    private final List<PageFetcher.Page> fetchedListPages = new ArrayList<>();
+
+    private final Set<String> failedListPageUrls = new HashSet<>();
+
+    private boolean hasReachedUnchangedPage = false;
+
     private String pageUrl;
 
+    private String articlesPageUrl;
+
     private Integer articleIdx;
 
+    private int articlesPageSize;
+
+    private int articlesPageExceptionsCount;
+
     private LocalDate dateForByDatePaging;
 
-    public HTMLNewsSource(Config config) {
+    public HTMLNewsSource(Config config, String name, PageFetcher pageFetcher) {
         super(config.maxPage());
         this.config = config;
-        this.dateForByDatePaging = config.byDatePagingFormat() == null
+        this.plan = HTMLExtractionPlan.of(config);
+        this.name = name;
+        this.pageFetcher = pageFetcher;
+        this.pagePrefetcher = new PagePrefetcher(pageFetcher, name);
+        this.dateForByDatePaging = plan.byDatePagingFormatter == null
             ? null
-            : LocalDate.now(ZoneId.of(requireNonNull(config.timeZone())));
+            : LocalDate.now(requireNonNull(plan.timeZone));
     }
 
     private String makeFullErrorMessage(String message) {
-        var fullMessageBuilder = new StringBuilder(message + ", page " + pageUrl);
+        var fullMessageBuilder = new StringBuilder(message + ", page " + articlesPageUrl);
         if (articleIdx != null) {
             fullMessageBuilder.append(", article index ").append(articleIdx);
         }
@@ -86,22 +130,15 @@ class HTMLNewsSource extends PageLimitedNewsSource {
     }
 
     private String extractLink(Element articleHtml) throws ArticleIOException {
-        var linkElement = throwBadFormatIfNull(articleHtml.selectFirst(config.linkSelector()), "Link");
+        var linkElement = throwBadFormatIfNull(articleHtml.selectFirst(plan.linkSelector), "Link");
         if (!linkElement.tag().equals(Tag.valueOf("a"))) {
             throw new ArticleIOException("Link does not have tag \"a\"");
         }
         return linkElement.absUrl("href");
     }
 
-    private static DateTimeFormatter makeDateTimeFormatter(String timeFormat) {
-        if ("<ISO>".equals(timeFormat)) {
-            return DateTimeFormatter.ISO_DATE_TIME;
-        }
-        return DateTimeFormatter.ofPattern(timeFormat);
-    }
-
     private String extractRawTime(Element articleHtml) throws ArticleIOException {
-        var timeElement = throwBadFormatIfNull(articleHtml.selectFirst(config.timeSelector()), "Time");
+        var timeElement = throwBadFormatIfNull(articleHtml.selectFirst(plan.timeSelector), "Time");
         if (config.usesTimeTag()) {
             return timeElement.attr("datetime");
         }
@@ -110,31 +147,16 @@ class HTMLNewsSource extends PageLimitedNewsSource {
 
     private long extractTimestamp(Element articleHtml) throws ArticleIOException {
         try {
-            var dateTimeFormatter = makeDateTimeFormatter(config.timeFormat());
-
             var rawTime = extractRawTime(articleHtml);
 
             if (config.containsRussianMonthNameGen()) {
-                rawTime = rawTime
-                    .toLowerCase()
-                    .replace("января", "01")
-                    .replace("февраля", "02")
-                    .replace("марта", "03")
-                    .replace("апреля", "04")
-                    .replace("мая", "05")
-                    .replace("июня", "06")
-                    .replace("июля", "07")
-                    .replace("августа", "08")
-                    .replace("сентября", "09")
-                    .replace("октября", "10")
-                    .replace("ноября", "11")
-                    .replace("декабря", "12");
+                rawTime = HTMLExtractionPlan.translateRussianMonthNamesGen(rawTime);
             }
 
-            var temporalAccessor = dateTimeFormatter.parse(rawTime, new ParsePosition(0));
+            var temporalAccessor = plan.timeFormatter.parse(rawTime, new ParsePosition(0));
 
             Instant instant;
-            if (config.timeZone() == null) {
+            if (plan.timeZone == null) {
                 instant = ZonedDateTime.from(temporalAccessor).toInstant();
             } else {
                 LocalDateTime localDateTime;
@@ -144,7 +166,7 @@ class HTMLNewsSource extends PageLimitedNewsSource {
                     localDateTime = LocalDate.from(temporalAccessor).atStartOfDay();
                 }
 
-                instant = localDateTime.atZone(ZoneId.of(config.timeZone())).toInstant();
+                instant = localDateTime.atZone(plan.timeZone).toInstant();
             }
 
             return instant.getEpochSecond();
@@ -153,99 +175,174 @@ class HTMLNewsSource extends PageLimitedNewsSource {
         }
     }
 
-    private String removeTimeFromTitleOrTextIfNeeded(Element articleHtml, String text) throws ArticleIOException {
-        return config.removeTimeFromTitleAndText() ? text.replace(extractRawTime(articleHtml), "") : text;
+    private @Nullable String extractRawTimeToRemove(Element articleHtml) throws ArticleIOException {
+        return config.removeTimeFromTitleAndText() ? extractRawTime(articleHtml) : null;
     }
 
-    private String extractText(Element articleHtml) throws ArticleIOException {
-        return removeTimeFromTitleOrTextIfNeeded(
-            articleHtml,
-            throwBadFormatIfNull(articleHtml.selectFirst(config.textSelector()), "Text").text()
+    private static String removeRawTime(String text, @Nullable String rawTimeToRemove) {
+        return rawTimeToRemove == null ? text : text.replace(rawTimeToRemove, "");
+    }
+
+    private String extractText(Element articleHtml, @Nullable String rawTimeToRemove) throws ArticleIOException {
+        return removeRawTime(
+            throwBadFormatIfNull(articleHtml.selectFirst(plan.textSelector), "Text").text(),
+            rawTimeToRemove
         ).strip();
     }
 
-    private String extractTitle(Element articleHtml) throws ArticleIOException {
+    private String extractTitle(Element articleHtml, @Nullable String rawTimeToRemove) throws ArticleIOException {
         String title;
-        if (config.titleSelector() != null) {
-            title = throwBadFormatIfNull(articleHtml.selectFirst(config.titleSelector()), "Title").text();
+        if (plan.titleSelector != null) {
+            title = throwBadFormatIfNull(articleHtml.selectFirst(plan.titleSelector), "Title").text();
         } else {
-            title = extractText(articleHtml).split("[.!?\\n]| https://")[0];
+            title = HTMLExtractionPlan.cutTitleFromText(extractText(articleHtml, rawTimeToRemove));
         }
-        return removeTimeFromTitleOrTextIfNeeded(articleHtml, title).strip();
+        return removeRawTime(title, rawTimeToRemove).strip();
     }
 
     private void computePageUrlIfNeeded() {
         if (pageUrl == null) {
-            if (config.nextPageLinkSelector() != null && getPageNo() > 1) {
+            if (plan.nextPageLinkSelector != null && getPageNo() > 1) {
                 return;
             }
 
-            String pageForUrl;
-            if (dateForByDatePaging == null) {
-                pageForUrl = String.valueOf(getPageNo());
-            } else {
-                pageForUrl = makeDateTimeFormatter(requireNonNull(config.byDatePagingFormat()))
-                    .format(dateForByDatePaging);
-            }
+            pageUrl = makePageUrl(0);
+        }
+    }
+
+    private String makePageUrl(int pagesAhead) {
+        String pageForUrl;
+        if (dateForByDatePaging == null) {
+            pageForUrl = String.valueOf(getPageNo() + pagesAhead);
+        } else {
+            pageForUrl = requireNonNull(plan.byDatePagingFormatter).format(dateForByDatePaging.minusDays(pagesAhead));
+        }
+        return plan.pageUrlTemplate.expand(pageForUrl).toString();
+    }
+
+    private List<String> getUrlsToPrefetch() {
+        if (config.prefetchPages() == null || plan.nextPageLinkSelector != null) {
+            return List.of();
+        }
 
-            pageUrl = new UriTemplate(config.urlWithPageVar()).expand(pageForUrl).toString();
+        List<String> urlsToPrefetch = new ArrayList<>();
+        for (int pagesAhead = 1; pagesAhead <= config.prefetchPages(); ++pagesAhead) {
+            if (hasPage(getPageNo() + pagesAhead)) {
+                urlsToPrefetch.add(makePageUrl(pagesAhead));
+            }
         }
+        return urlsToPrefetch;
     }
 
     private @Nullable String extractNextPageUrlIfNeeded(Element articlesListHtml) throws ArticleIOException {
-        if (config.nextPageLinkSelector() != null) {
-            var nextPageLink = articlesListHtml.selectFirst(config.nextPageLinkSelector());
+        if (plan.nextPageLinkSelector != null) {
+            var nextPageLink = articlesListHtml.selectFirst(plan.nextPageLinkSelector);
             return nextPageLink == null ? null : nextPageLink.absUrl("href");
         }
         return null;
     }
 
-    private Element loadPageHtml(String url) throws ArticleIOException {
+    private static Element parsePageHtml(PageFetcher.Page page) throws IOException {
+        return Jsoup.parse(new ByteArrayInputStream(page.body()), page.charset(), page.url());
+    }
+
+    private boolean usesLinks() {
+        return config.useLinkForTitle() || config.useLinkForText() || config.useLinkForTime();
+    }
+
+    private Future<Element> loadPageHtmlAsync(String url, ExecutorService executor, Semaphore parallelLoadsLimit) {
+        return executor.submit(() -> {
+            parallelLoadsLimit.acquire();
+            try {
+                return parsePageHtml(pageFetcher.fetch(url));
+            } finally {
+                parallelLoadsLimit.release();
+            }
+        });
+    }
+
+    private Element getLoadedPageHtml(Future<Element> pageHtml) throws ArticleIOException {
         try {
-            return Jsoup.connect(url).get();
+            return pageHtml.get();
+        } catch (ExecutionException exception) {
+            throw new ArticleIOException("Failed to load page", exception.getCause());
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new ArticleIOException("Interrupted while loading page", exception);
+        }
+    }
+
+    private Optional<Element> loadListPageHtmlIfChanged(String url) throws ArticleIOException {
+        try {
+            var page = pagePrefetcher.fetchIfChanged(url, getUrlsToPrefetch());
+            if (page.isEmpty()) {
+                return Optional.empty();
+            }
+            fetchedListPages.add(page.get());
+            return Optional.of(parsePageHtml(page.get()));
         } catch (IOException ioException) {
             throw new ArticleIOException("Failed to load page", ioException);
         }
     }
 
-    public List<JustCollectedArticle> doNextArticlesPage() throws IOException {
+    private void countArticleFailure(ArticleIOException articleIOException) throws ArticleIOException {
+        logger.error("Article parsing failed:", articleIOException);
+        failedListPageUrls.add(articlesPageUrl);
+        ++articlesPageExceptionsCount;
+        if (2 * articlesPageExceptionsCount >= articlesPageSize) {
+            throw articleIOException;
+        }
+    }
+
+    private List<ListedHTMLArticle> doNextArticlesPage(long oldLastTimestamp) throws IOException {
+        if (hasReachedUnchangedPage) {
+            return List.of();
+        }
+
         computePageUrlIfNeeded();
         if (pageUrl == null) {
             return List.of();
         }
 
-        var articlesListHtml = loadPageHtml(pageUrl);
-
-        List<JustCollectedArticle> articles = new ArrayList<>();
-        var articleHtmls = articlesListHtml.select(config.itemSelector());
-
-        long exceptionsCount = 0;
-        for (articleIdx = 0; articleIdx < articleHtmls.size(); ++articleIdx) {
-            try {
-                var articleHtml = articleHtmls.get(articleIdx);
-
-                var link = extractLink(articleHtml);
+        articlesPageUrl = pageUrl;
+        var articlesListHtmlIfChanged = loadListPageHtmlIfChanged(pageUrl);
+        if (articlesListHtmlIfChanged.isEmpty()) {
+            hasReachedUnchangedPage = true;
+            pagePrefetcher.cancel();
+            return List.of();
+        }
+        var articlesListHtml = articlesListHtmlIfChanged.get();
 
-                Element articleHtmlFromLink = null;
-                if (config.useLinkForTitle() || config.useLinkForText() || config.useLinkForTime()) {
-                    articleHtmlFromLink = loadPageHtml(link);
-                }
+        List<ListedHTMLArticle> listedArticles = new ArrayList<>();
+        var articleHtmls = articlesListHtml.select(plan.itemSelector);
+        articlesPageSize = articleHtmls.size();
+        articlesPageExceptionsCount = 0;
 
-                articles.add(new JustCollectedArticle(
-                    link,
-                    config.useLinkForTitle() ? extractTitle(articleHtmlFromLink) : extractTitle(articleHtml),
-                    config.useLinkForText() ? extractText(articleHtmlFromLink) : extractText(articleHtml),
-                    config.useLinkForTime() ? extractTimestamp(articleHtmlFromLink) : extractTimestamp(articleHtml)
-                ));
-            } catch (ArticleIOException articleIOException) {
-                logger.error("Article parsing failed:", articleIOException);
-                ++exceptionsCount;
-                if (2 * exceptionsCount >= articleHtmls.size()) {
-                    throw articleIOException;
+        try {
+            for (articleIdx = 0; articleIdx < articleHtmls.size(); ++articleIdx) {
+                try {
+                    var articleHtml = articleHtmls.get(articleIdx);
+                    var listedArticle = new ListedHTMLArticle(
+                        extractLink(articleHtml),
+                        config.useLinkForTime()
+                            ? OptionalLong.empty()
+                            : OptionalLong.of(extractTimestamp(articleHtml)),
+                        articleHtml,
+                        articlesPageUrl,
+                        articleIdx
+                    );
+                    listedArticles.add(listedArticle);
+                    if (listedArticle.knownTimestamp().orElse(oldLastTimestamp) < oldLastTimestamp) {
+                        pagePrefetcher.cancel();
+                        break;
+                    }
+                } catch (ArticleIOException articleIOException) {
+                    countArticleFailure(articleIOException);
                 }
             }
+        } finally {
+            articleIdx = null;
         }
-        articleIdx = null;
 
         if (dateForByDatePaging != null) {
             dateForByDatePaging = dateForByDatePaging.plusDays(-1);
@@ -253,17 +350,89 @@ class HTMLNewsSource extends PageLimitedNewsSource {
 
         pageUrl = extractNextPageUrlIfNeeded(articlesListHtml);
 
-        return articles;
+        return listedArticles;
     }
 
     @Override
-    public List<JustCollectedArticle> nextArticlesPageImpl() throws IOException {
+    public List<ListedHTMLArticle> nextArticlesPageImpl(long oldLastTimestamp) throws IOException {
         for (int attempt = 0; attempt < config.attemptsToFindNonEmptyPage() + 1; ++attempt) {
-            var result = doNextArticlesPage();
-            if (!result.isEmpty()) {
+            var result = doNextArticlesPage(oldLastTimestamp);
+            if (!result.isEmpty() || hasReachedUnchangedPage) {
                 return result;
             }
         }
         return List.of();
     }
+
+    @Override
+    public List<JustCollectedArticle> loadArticles(List<ListedHTMLArticle> listedArticles) throws IOException {
+        List<JustCollectedArticle> articles = new ArrayList<>();
+
+        var linkLoadExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            var parallelLinkLoadsLimit = new Semaphore(
+                requireNonNullElse(config.maxParallelLinkLoads(), DEFAULT_MAX_PARALLEL_LINK_LOADS)
+            );
+
+            List<Future<Element>> articleHtmlsFromLinks = new ArrayList<>();
+            for (var listedArticle : listedArticles) {
+                articleHtmlsFromLinks.add(
+                    usesLinks()
+                        ? loadPageHtmlAsync(listedArticle.link(), linkLoadExecutor, parallelLinkLoadsLimit)
+                        : null
+                );
+            }
+
+            for (int listedArticleIdx = 0; listedArticleIdx < listedArticles.size(); ++listedArticleIdx) {
+                var listedArticle = listedArticles.get(listedArticleIdx);
+                articlesPageUrl = listedArticle.pageUrl();
+                articleIdx = listedArticle.idx();
+
+                try {
+                    var articleHtml = listedArticle.html();
+
+                    Element articleHtmlFromLink = null;
+                    if (usesLinks()) {
+                        articleHtmlFromLink = getLoadedPageHtml(articleHtmlsFromLinks.get(listedArticleIdx));
+                    }
+
+                    var titleHtml = config.useLinkForTitle() ? articleHtmlFromLink : articleHtml;
+                    var textHtml = config.useLinkForText() ? articleHtmlFromLink : articleHtml;
+                    var titleRawTimeToRemove = extractRawTimeToRemove(titleHtml);
+                    var textRawTimeToRemove = textHtml == titleHtml
+                        ? titleRawTimeToRemove
+                        : extractRawTimeToRemove(textHtml);
+
+                    articles.add(new JustCollectedArticle(
+                        listedArticle.link(),
+                        extractTitle(titleHtml, titleRawTimeToRemove),
+                        extractText(textHtml, textRawTimeToRemove),
+                        config.useLinkForTime()
+                            ? extractTimestamp(articleHtmlFromLink)
+                            : listedArticle.knownTimestamp().getAsLong()
+                    ));
+                } catch (ArticleIOException articleIOException) {
+                    countArticleFailure(articleIOException);
+                }
+            }
+        } finally {
+            linkLoadExecutor.shutdownNow();
+            articleIdx = null;
+        }
+
+        return articles;
+    }
+
+    @Override
+    public void commit() {
+        fetchedListPages.stream()
+            .filter(page -> !failedListPageUrls.contains(page.url()))
+            .forEach(page -> pageFetcher.remember(name, page));
+        fetchedListPages.clear();
+    }
+
+    @Override
+    public void close() {
+        pagePrefetcher.close();
+    }
 }
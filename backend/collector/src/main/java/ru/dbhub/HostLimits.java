@@ -0,0 +1,11 @@
+package ru.dbhub;
+
+import jakarta.validation.constraints.Positive;
+import org.springframework.lang.Nullable;
+
+record HostLimits(
+    @Nullable @Positive Double requestsPerSecond,
+    @Nullable @Positive Integer burst,
+    @Nullable @Positive Integer maxInFlight
+) {
+}
@@ -0,0 +1,151 @@
+package ru.dbhub;
+
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.util.Objects.requireNonNullElse;
+
+final class HostThrottle {
+    private record Limits(double requestsPerSecond, int burst, int maxInFlight) {
+    }
+
+    private final class HostState {
+        private final String host;
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final Condition changed = lock.newCondition();
+
+        private int inFlight = 0;
+
+        private double tokens;
+
+        private long refilledAtNanos = System.nanoTime();
+
+        private long pausedUntilNanos = refilledAtNanos;
+
+        private HostState(String host) {
+            this.host = host;
+            this.tokens = getLimits(host).burst();
+        }
+
+        private void refill(Limits limits, long nowNanos) {
+            tokens = Math.min(
+                limits.burst(),
+                tokens + (nowNanos - refilledAtNanos) * limits.requestsPerSecond() / TimeUnit.SECONDS.toNanos(1)
+            );
+            refilledAtNanos = nowNanos;
+        }
+
+        private void acquire() throws InterruptedException {
+            lock.lock();
+            try {
+                while (true) {
+                    var limits = getLimits(host);
+                    long nowNanos = System.nanoTime();
+                    refill(limits, nowNanos);
+
+                    if (inFlight >= limits.maxInFlight()) {
+                        changed.await();
+                        continue;
+                    }
+
+                    long waitNanos = Math.max(
+                        pausedUntilNanos - nowNanos,
+                        (long) Math.ceil((1 - tokens) * TimeUnit.SECONDS.toNanos(1) / limits.requestsPerSecond())
+                    );
+                    if (waitNanos <= 0) {
+                        tokens -= 1;
+                        ++inFlight;
+                        return;
+                    }
+                    changed.awaitNanos(waitNanos);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void release() {
+            lock.lock();
+            try {
+                --inFlight;
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void pause(Duration duration) {
+            lock.lock();
+            try {
+                pausedUntilNanos = Math.max(pausedUntilNanos, System.nanoTime() + duration.toNanos());
+                tokens = Math.min(tokens, 0);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private final Map<String, HostState> hostStates = new ConcurrentHashMap<>();
+
+    private final Limits fallbackLimits;
+
+    private volatile Limits defaultLimits;
+
+    private volatile Map<String, Limits> limitsByHost = Map.of();
+
+    HostThrottle(double requestsPerSecond, int burst, int maxInFlight) {
+        this.fallbackLimits = new Limits(requestsPerSecond, burst, maxInFlight);
+        this.defaultLimits = fallbackLimits;
+    }
+
+    private static Limits resolve(@Nullable HostLimits hostLimits, Limits defaults) {
+        if (hostLimits == null) {
+            return defaults;
+        }
+        return new Limits(
+            requireNonNullElse(hostLimits.requestsPerSecond(), defaults.requestsPerSecond()),
+            requireNonNullElse(hostLimits.burst(), defaults.burst()),
+            requireNonNullElse(hostLimits.maxInFlight(), defaults.maxInFlight())
+        );
+    }
+
+    void setLimits(@Nullable HostLimits defaultHostLimits, @Nullable Map<String, HostLimits> hostLimits) {
+        var newDefaultLimits = resolve(defaultHostLimits, fallbackLimits);
+        Map<String, Limits> newLimitsByHost = new ConcurrentHashMap<>();
+        if (hostLimits != null) {
+            hostLimits.forEach(
+                (host, limits) -> newLimitsByHost.put(host.toLowerCase(), resolve(limits, newDefaultLimits))
+            );
+        }
+        defaultLimits = newDefaultLimits;
+        limitsByHost = newLimitsByHost;
+    }
+
+    private Limits getLimits(String host) {
+        return limitsByHost.getOrDefault(host, defaultLimits);
+    }
+
+    private HostState getHostState(String host) {
+        return hostStates.computeIfAbsent(host.toLowerCase(), HostState::new);
+    }
+
+    void acquire(String host) throws InterruptedException {
+        getHostState(host).acquire();
+    }
+
+    void release(String host) {
+        getHostState(host).release();
+    }
+
+    void pause(String host, Duration duration) {
+        getHostState(host).pause(duration);
+    }
+}
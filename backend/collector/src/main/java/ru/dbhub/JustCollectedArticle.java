@@ -1,9 +1,15 @@
 package ru.dbhub;
 
+import java.util.OptionalLong;
+
 public record JustCollectedArticle(
     String link,
     String title,
     String text,
     long timestamp
-) {
+) implements ListedArticle {
+    @Override
+    public OptionalLong knownTimestamp() {
+        return OptionalLong.of(timestamp);
+    }
 }
@@ -0,0 +1,127 @@
+package ru.dbhub;
+
+import java.util.*;
+
+final class KeywordMatcher {
+    private static final int ROOT = 0;
+
+    private static final int NO_NODE = -1;
+
+    private final char[][] edgeChars;
+
+    private final int[][] edgeTargets;
+
+    private final int[] failures;
+
+    private final int[] dictionarySuffixes;
+
+    private final int[] keywordLengths;
+
+    KeywordMatcher(Collection<String> keywords) {
+        List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        List<Integer> trieKeywordLengths = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        trieKeywordLengths.add(0);
+
+        for (var keyword : keywords) {
+            if (keyword.isEmpty()) {
+                continue;
+            }
+
+            int node = ROOT;
+            for (int i = 0; i < keyword.length(); ++i) {
+                char c = Character.toLowerCase(keyword.charAt(i));
+                var nextNode = trie.get(node).get(c);
+                if (nextNode == null) {
+                    nextNode = trie.size();
+                    trie.get(node).put(c, nextNode);
+                    trie.add(new TreeMap<>());
+                    trieKeywordLengths.add(0);
+                }
+                node = nextNode;
+            }
+            trieKeywordLengths.set(node, keyword.length());
+        }
+
+        int nodesCount = trie.size();
+        edgeChars = new char[nodesCount][];
+        edgeTargets = new int[nodesCount][];
+        keywordLengths = new int[nodesCount];
+        for (int node = 0; node < nodesCount; ++node) {
+            var edges = trie.get(node);
+            edgeChars[node] = new char[edges.size()];
+            edgeTargets[node] = new int[edges.size()];
+            int edgeIdx = 0;
+            for (var edge : edges.entrySet()) {
+                edgeChars[node][edgeIdx] = edge.getKey();
+                edgeTargets[node][edgeIdx] = edge.getValue();
+                ++edgeIdx;
+            }
+            keywordLengths[node] = trieKeywordLengths.get(node);
+        }
+
+        failures = new int[nodesCount];
+        dictionarySuffixes = new int[nodesCount];
+        failures[ROOT] = ROOT;
+        dictionarySuffixes[ROOT] = NO_NODE;
+
+        Deque<Integer> queue = new ArrayDeque<>();
+        queue.add(ROOT);
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int edgeIdx = 0; edgeIdx < edgeChars[node].length; ++edgeIdx) {
+                int child = edgeTargets[node][edgeIdx];
+                failures[child] = node == ROOT ? ROOT : next(failures[node], edgeChars[node][edgeIdx]);
+                dictionarySuffixes[child] = keywordLengths[failures[child]] > 0
+                    ? failures[child]
+                    : dictionarySuffixes[failures[child]];
+                queue.add(child);
+            }
+        }
+    }
+
+    private int findEdge(int node, char c) {
+        int edgeIdx = Arrays.binarySearch(edgeChars[node], c);
+        return edgeIdx < 0 ? NO_NODE : edgeTargets[node][edgeIdx];
+    }
+
+    private int next(int node, char c) {
+        while (true) {
+            int target = findEdge(node, c);
+            if (target != NO_NODE) {
+                return target;
+            }
+            if (node == ROOT) {
+                return ROOT;
+            }
+            node = failures[node];
+        }
+    }
+
+    private static boolean isKeywordStart(CharSequence text, int start) {
+        return start == 0 || Character.isWhitespace(text.charAt(start - 1));
+    }
+
+    private static boolean isKeywordEnd(CharSequence text, int end) {
+        if (end == text.length()) {
+            return true;
+        }
+        char c = text.charAt(end);
+        return c == '.' || c == '!' || c == '?' || Character.isWhitespace(c);
+    }
+
+    boolean containsKeyword(CharSequence text) {
+        int node = ROOT;
+        for (int i = 0; i < text.length(); ++i) {
+            node = next(node, Character.toLowerCase(text.charAt(i)));
+
+            int match = keywordLengths[node] > 0 ? node : dictionarySuffixes[node];
+            for (; match != NO_NODE; match = dictionarySuffixes[match]) {
+                if (isKeywordStart(text, i + 1 - keywordLengths[match]) && isKeywordEnd(text, i + 1)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
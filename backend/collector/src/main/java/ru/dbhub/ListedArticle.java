@@ -0,0 +1,9 @@
+package ru.dbhub;
+
+import java.util.OptionalLong;
+
+interface ListedArticle {
+    String link();
+
+    OptionalLong knownTimestamp();
+}
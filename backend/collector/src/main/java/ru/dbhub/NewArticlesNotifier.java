@@ -0,0 +1,112 @@
+package ru.dbhub;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+class NewArticlesNotifier {
+    private static final long POLL_MAX_ID_RATE_MILLIS = 1000;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    @Autowired
+    private ArticleStorage articleStorage;
+
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition articlesAdded = lock.newCondition();
+
+    private long version = 0;
+
+    private int waitersCount = 0;
+
+    private long lastKnownMaxId = 0;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startPolling() {
+        lastKnownMaxId = articleStorage.getMaxId().orElse(0L);
+        poller.scheduleWithFixedDelay(
+            () -> {
+                try {
+                    pollMaxId();
+                } catch (Exception exception) {
+                    logger.error("Failed to poll for new articles", exception);
+                }
+            },
+            POLL_MAX_ID_RATE_MILLIS,
+            POLL_MAX_ID_RATE_MILLIS,
+            TimeUnit.MILLISECONDS
+        );
+    }
+
+    @PreDestroy
+    public void stopPolling() {
+        poller.shutdownNow();
+    }
+
+    private boolean hasWaiters() {
+        lock.lock();
+        try {
+            return waitersCount > 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void pollMaxId() {
+        if (!hasWaiters()) {
+            return;
+        }
+        long maxId = articleStorage.getMaxId().orElse(0L);
+        if (maxId > lastKnownMaxId) {
+            lastKnownMaxId = maxId;
+            notifyArticlesAdded();
+        }
+    }
+
+    long getVersion() {
+        lock.lock();
+        try {
+            return version;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void notifyArticlesAdded() {
+        lock.lock();
+        try {
+            ++version;
+            articlesAdded.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void awaitArticlesAddedAfter(long knownVersion, long timeoutMillis) throws InterruptedException {
+        lock.lock();
+        ++waitersCount;
+        try {
+            long nanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            while (version == knownVersion && nanos > 0) {
+                nanos = articlesAdded.awaitNanos(nanos);
+            }
+        } finally {
+            --waitersCount;
+            lock.unlock();
+        }
+    }
+}
@@ -3,6 +3,14 @@ package ru.dbhub;
 import java.io.IOException;
 import java.util.List;
 
-interface NewsSource {
-    List<JustCollectedArticle> nextArticlesPage() throws IOException;
+interface NewsSource<L extends ListedArticle> {
+    List<L> nextArticlesPage(long oldLastTimestamp) throws IOException;
+
+    List<JustCollectedArticle> loadArticles(List<L> listedArticles) throws IOException;
+
+    default void commit() {
+    }
+
+    default void close() {
+    }
 }
@@ -0,0 +1,436 @@
+package ru.dbhub;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.IDN;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+@Component
+class PageFetcher {
+    record Validators(
+        @Nullable String eTag,
+        @Nullable String lastModified,
+        String bodyHash
+    ) {
+    }
+
+    record Page(
+        String url,
+        byte[] body,
+        @Nullable String charset,
+        Validators validators
+    ) {
+    }
+
+    private record ValidatorsKey(String sourceName, String url) {
+    }
+
+    record Statistics(
+        long requestsCount,
+        long notModifiedCount,
+        long rateLimitedCount,
+        long transferredBytes,
+        long decodedBytes
+    ) {
+    }
+
+    private static final int HTTP_OK_MIN = 200;
+
+    private static final int HTTP_OK_MAX = 299;
+
+    private static final int HTTP_NOT_MODIFIED = 304;
+
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+
+    private static final int HTTP_SERVICE_UNAVAILABLE = 503;
+
+    private static final int MAX_RETRIES_AFTER_RATE_LIMIT = 1;
+
+    private static final String URL_CHARS_TO_ESCAPE = "\"<>\\^`{|}";
+
+    private interface ResponseHandler<T> {
+        T handle(HttpResponse<byte[]> response) throws IOException;
+    }
+
+    private static class LimitedBodySubscriber implements HttpResponse.BodySubscriber<byte[]> {
+        private final int maxBodySize;
+
+        private final String url;
+
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        private final CompletableFuture<byte[]> result = new CompletableFuture<>();
+
+        private @Nullable Flow.Subscription subscription;
+
+        LimitedBodySubscriber(int maxBodySize, String url) {
+            this.maxBodySize = maxBodySize;
+            this.url = url;
+        }
+
+        @Override
+        public CompletionStage<byte[]> getBody() {
+            return result;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> buffers) {
+            if (result.isDone()) {
+                return;
+            }
+            for (var buffer : buffers) {
+                if (body.size() + buffer.remaining() > maxBodySize) {
+                    Objects.requireNonNull(subscription).cancel();
+                    result.completeExceptionally(
+                        new IOException("Body of " + url + " is larger than " + maxBodySize + " bytes")
+                    );
+                    return;
+                }
+                var bytes = new byte[buffer.remaining()];
+                buffer.get(bytes);
+                body.writeBytes(bytes);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            result.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            result.complete(body.toByteArray());
+        }
+    }
+
+    private final HttpClient httpClient;
+
+    private final HostThrottle hostThrottle;
+
+    private final Duration maxRetryAfter;
+
+    private final Duration requestTimeout;
+
+    private final int maxBodySize;
+
+    private final String userAgent;
+
+    private final Map<ValidatorsKey, Validators> validatorsByKey;
+
+    private final AtomicLong requestsCount = new AtomicLong();
+
+    private final AtomicLong notModifiedCount = new AtomicLong();
+
+    private final AtomicLong rateLimitedCount = new AtomicLong();
+
+    private final AtomicLong transferredBytes = new AtomicLong();
+
+    private final AtomicLong decodedBytes = new AtomicLong();
+
+    PageFetcher(
+        @Value("${ru.dbhub.collector.fetcher.connect-timeout}") long connectTimeout,
+        @Value("${ru.dbhub.collector.fetcher.request-timeout}") long requestTimeout,
+        @Value("${ru.dbhub.collector.fetcher.max-body-size}") int maxBodySize,
+        @Value("${ru.dbhub.collector.fetcher.user-agent}") String userAgent,
+        @Value("${ru.dbhub.collector.page-validators-cache-size}") int validatorsCacheSize,
+        @Value("${ru.dbhub.collector.fetcher.default-host-requests-per-second}") double hostRequestsPerSecond,
+        @Value("${ru.dbhub.collector.fetcher.default-host-burst}") int hostBurst,
+        @Value("${ru.dbhub.collector.fetcher.default-host-max-in-flight}") int hostMaxInFlight,
+        @Value("${ru.dbhub.collector.fetcher.max-retry-after}") long maxRetryAfter
+    ) {
+        this.httpClient = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.ALWAYS)
+            .connectTimeout(Duration.ofSeconds(connectTimeout))
+            .build();
+        this.hostThrottle = new HostThrottle(hostRequestsPerSecond, hostBurst, hostMaxInFlight);
+        this.maxRetryAfter = Duration.ofSeconds(maxRetryAfter);
+        this.requestTimeout = Duration.ofSeconds(requestTimeout);
+        this.maxBodySize = maxBodySize;
+        this.userAgent = userAgent;
+        this.validatorsByKey = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ValidatorsKey, Validators> eldest) {
+                return size() > validatorsCacheSize;
+            }
+        });
+    }
+
+    private static String hashBody(byte[] body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException unreachable) {
+            throw new RuntimeException(unreachable);
+        }
+    }
+
+    private static boolean isSecure(URI uri) {
+        return "https".equalsIgnoreCase(uri.getScheme());
+    }
+
+    private static String escapeUrlPart(String urlPart) {
+        var escapedUrlPart = new StringBuilder();
+        for (byte urlByte : urlPart.getBytes(StandardCharsets.UTF_8)) {
+            int c = urlByte & 0xff;
+            if (c > ' ' && c < 0x7f && URL_CHARS_TO_ESCAPE.indexOf(c) < 0) {
+                escapedUrlPart.append((char) c);
+            } else {
+                escapedUrlPart.append('%').append(HexFormat.of().withUpperCase().toHexDigits((byte) c));
+            }
+        }
+        return escapedUrlPart.toString();
+    }
+
+    private static String toAsciiAuthority(String authority) {
+        int hostStart = authority.lastIndexOf('@') + 1;
+        int hostEnd = authority.lastIndexOf(':');
+        if (hostEnd < hostStart || authority.indexOf(']', hostStart) > hostEnd) {
+            hostEnd = authority.length();
+        }
+
+        var host = authority.substring(hostStart, hostEnd);
+        var asciiHost = host.startsWith("[") ? host : IDN.toASCII(host, IDN.ALLOW_UNASSIGNED);
+        return escapeUrlPart(authority.substring(0, hostStart)) + asciiHost + authority.substring(hostEnd);
+    }
+
+    static URI toUri(String url) throws IOException {
+        int schemeEnd = url.indexOf("://");
+        if (schemeEnd < 0) {
+            throw new IOException("Bad URL " + url);
+        }
+        int authorityStart = schemeEnd + "://".length();
+        int authorityEnd = authorityStart;
+        while (authorityEnd < url.length() && "/?#".indexOf(url.charAt(authorityEnd)) < 0) {
+            ++authorityEnd;
+        }
+
+        try {
+            return new URI(
+                url.substring(0, authorityStart)
+                    + toAsciiAuthority(url.substring(authorityStart, authorityEnd))
+                    + escapeUrlPart(url.substring(authorityEnd))
+            );
+        } catch (URISyntaxException | IllegalArgumentException exception) {
+            throw new IOException("Bad URL " + url, exception);
+        }
+    }
+
+    private HttpResponse<byte[]> send(URI uri, String url, @Nullable Validators validators) throws IOException {
+        var requestBuilder = HttpRequest.newBuilder(uri)
+            .version(isSecure(uri) ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+            .timeout(requestTimeout)
+            .header("User-Agent", userAgent)
+            .header("Accept-Encoding", "gzip, deflate");
+        if (validators != null && validators.eTag() != null) {
+            requestBuilder.header("If-None-Match", validators.eTag());
+        }
+        if (validators != null && validators.lastModified() != null) {
+            requestBuilder.header("If-Modified-Since", validators.lastModified());
+        }
+
+        requestsCount.incrementAndGet();
+        var response = httpClient.sendAsync(
+            requestBuilder.build(), responseInfo -> new LimitedBodySubscriber(maxBodySize, url)
+        );
+        try {
+            return response.get(requestTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException exception) {
+            response.cancel(true);
+            throw new HttpTimeoutException("Loading " + url + " took longer than " + requestTimeout);
+        } catch (InterruptedException exception) {
+            response.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while loading " + url);
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Failed to load " + url, exception.getCause());
+        }
+    }
+
+    private static Optional<Duration> extractRetryAfter(HttpResponse<?> response) {
+        if (response.statusCode() != HTTP_TOO_MANY_REQUESTS && response.statusCode() != HTTP_SERVICE_UNAVAILABLE) {
+            return Optional.empty();
+        }
+
+        var retryAfter = response.headers().firstValue("Retry-After").map(String::strip);
+        if (retryAfter.isEmpty()) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(Duration.ofSeconds(Math.max(0, Long.parseLong(retryAfter.get()))));
+        } catch (NumberFormatException ignored) {
+        }
+
+        try {
+            var retryAt = ZonedDateTime.parse(retryAfter.get(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            var delay = Duration.between(Instant.now(), retryAt);
+            return Optional.of(delay.isNegative() ? Duration.ZERO : delay);
+        } catch (DateTimeException ignored) {
+            return Optional.empty();
+        }
+    }
+
+    private <T> T exchange(
+        String url, @Nullable Validators validators, ResponseHandler<T> responseHandler
+    ) throws IOException {
+        var uri = toUri(url);
+        var host = uri.getHost() == null ? "" : uri.getHost();
+
+        for (int retry = 0; ; ++retry) {
+            try {
+                hostThrottle.acquire(host);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting to load " + url);
+            }
+
+            try {
+                var response = send(uri, url, validators);
+
+                var retryAfter = extractRetryAfter(response);
+                if (retryAfter.isEmpty()) {
+                    return responseHandler.handle(response);
+                }
+
+                rateLimitedCount.incrementAndGet();
+                var isRetryAfterTooLong = retryAfter.get().compareTo(maxRetryAfter) > 0;
+                hostThrottle.pause(host, isRetryAfterTooLong ? maxRetryAfter : retryAfter.get());
+                if (isRetryAfterTooLong || retry >= MAX_RETRIES_AFTER_RATE_LIMIT) {
+                    return responseHandler.handle(response);
+                }
+            } finally {
+                hostThrottle.release(host);
+            }
+        }
+    }
+
+    void setHostLimits(@Nullable HostLimits defaultHostLimits, @Nullable Map<String, HostLimits> hostLimits) {
+        hostThrottle.setLimits(defaultHostLimits, hostLimits);
+    }
+
+    private byte[] readLimited(InputStream inputStream, String url) throws IOException {
+        try (inputStream) {
+            var bytes = inputStream.readNBytes(maxBodySize + 1);
+            if (bytes.length > maxBodySize) {
+                throw new IOException("Body of " + url + " is larger than " + maxBodySize + " bytes");
+            }
+            return bytes;
+        }
+    }
+
+    private byte[] readBody(HttpResponse<byte[]> response, String url) throws IOException {
+        var transferredBody = response.body();
+        transferredBytes.addAndGet(transferredBody.length);
+
+        var contentEncoding = response.headers().firstValue("Content-Encoding").orElse("identity");
+        var body = switch (contentEncoding.strip().toLowerCase()) {
+            case "gzip", "x-gzip" -> readLimited(new GZIPInputStream(new ByteArrayInputStream(transferredBody)), url);
+            case "deflate" -> readLimited(new InflaterInputStream(new ByteArrayInputStream(transferredBody)), url);
+            default -> transferredBody;
+        };
+        decodedBytes.addAndGet(body.length);
+        return body;
+    }
+
+    private static @Nullable String extractCharset(HttpResponse<?> response) {
+        return response.headers().firstValue("Content-Type")
+            .flatMap(contentType -> Arrays.stream(contentType.split(";"))
+                .map(String::strip)
+                .filter(parameter -> parameter.toLowerCase().startsWith("charset="))
+                .map(parameter -> parameter.substring("charset=".length()).replace("\"", ""))
+                .findFirst()
+            )
+            .orElse(null);
+    }
+
+    private Page toPage(String url, HttpResponse<byte[]> response) throws IOException {
+        if (response.statusCode() < HTTP_OK_MIN || response.statusCode() > HTTP_OK_MAX) {
+            throw new IOException("HTTP status " + response.statusCode() + " loading " + url);
+        }
+
+        var body = readBody(response, url);
+        return new Page(
+            url,
+            body,
+            extractCharset(response),
+            new Validators(
+                response.headers().firstValue("ETag").orElse(null),
+                response.headers().firstValue("Last-Modified").orElse(null),
+                hashBody(body)
+            )
+        );
+    }
+
+    Page fetch(String url) throws IOException {
+        return exchange(url, null, response -> toPage(url, response));
+    }
+
+    Optional<Page> fetchIfChanged(String sourceName, String url) throws IOException {
+        var validators = validatorsByKey.get(new ValidatorsKey(sourceName, url));
+
+        var page = exchange(url, validators, response -> {
+            if (response.statusCode() == HTTP_NOT_MODIFIED) {
+                notModifiedCount.incrementAndGet();
+                return null;
+            }
+            return toPage(url, response);
+        });
+        if (page == null) {
+            return Optional.empty();
+        }
+
+        if (validators != null && validators.bodyHash().equals(page.validators().bodyHash())) {
+            remember(sourceName, page);
+            return Optional.empty();
+        }
+        return Optional.of(page);
+    }
+
+    void remember(String sourceName, Page page) {
+        validatorsByKey.put(new ValidatorsKey(sourceName, page.url()), page.validators());
+    }
+
+    Statistics getStatistics() {
+        return new Statistics(
+            requestsCount.get(),
+            notModifiedCount.get(),
+            rateLimitedCount.get(),
+            transferredBytes.get(),
+            decodedBytes.get()
+        );
+    }
+}
@@ -5,7 +5,7 @@ import org.springframework.lang.Nullable;
 import java.io.IOException;
 import java.util.List;
 
-public abstract class PageLimitedNewsSource implements NewsSource {
+public abstract class PageLimitedNewsSource<L extends ListedArticle> implements NewsSource<L> {
     private final Integer maxPage;
 
     private int page = 1;
@@ -15,11 +15,11 @@ public abstract class PageLimitedNewsSource implements NewsSource {
     }
 
     @Override
-    public List<JustCollectedArticle> nextArticlesPage() throws IOException {
+    public List<L> nextArticlesPage(long oldLastTimestamp) throws IOException {
         if (maxPage != null && page > maxPage) {
             return List.of();
         }
-        var result = nextArticlesPageImpl();
+        var result = nextArticlesPageImpl(oldLastTimestamp);
         ++page;
         return result;
     }
@@ -28,5 +28,9 @@ public abstract class PageLimitedNewsSource implements NewsSource {
         return page;
     }
 
-    protected abstract List<JustCollectedArticle> nextArticlesPageImpl() throws IOException;
+    protected boolean hasPage(int pageNo) {
+        return maxPage == null || pageNo <= maxPage;
+    }
+
+    protected abstract List<L> nextArticlesPageImpl(long oldLastTimestamp) throws IOException;
 }
@@ -0,0 +1,77 @@
+package ru.dbhub;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+final class PagePrefetcher {
+    private final PageFetcher pageFetcher;
+
+    private final String sourceName;
+
+    private final Map<String, Future<Optional<PageFetcher.Page>>> prefetchedPages = new HashMap<>();
+
+    private ExecutorService prefetchExecutor;
+
+    PagePrefetcher(PageFetcher pageFetcher, String sourceName) {
+        this.pageFetcher = pageFetcher;
+        this.sourceName = sourceName;
+    }
+
+    private void prefetch(String url) {
+        if (prefetchExecutor == null) {
+            prefetchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        }
+        prefetchedPages.put(url, prefetchExecutor.submit(() -> pageFetcher.fetchIfChanged(sourceName, url)));
+    }
+
+    Optional<PageFetcher.Page> fetchIfChanged(String url, List<String> nextUrls) throws IOException {
+        for (var nextUrl : nextUrls) {
+            if (!nextUrl.equals(url) && !prefetchedPages.containsKey(nextUrl)) {
+                prefetch(nextUrl);
+            }
+        }
+
+        var prefetchedPage = prefetchedPages.remove(url);
+        if (prefetchedPage == null) {
+            return pageFetcher.fetchIfChanged(sourceName, url);
+        }
+
+        try {
+            return prefetchedPage.get();
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (exception.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException("Failed to prefetch " + url, exception.getCause());
+        } catch (CancellationException exception) {
+            return pageFetcher.fetchIfChanged(sourceName, url);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while prefetching " + url);
+        }
+    }
+
+    void cancel() {
+        prefetchedPages.values().forEach(prefetchedPage -> prefetchedPage.cancel(true));
+        prefetchedPages.clear();
+    }
+
+    void close() {
+        cancel();
+        if (prefetchExecutor != null) {
+            prefetchExecutor.shutdownNow();
+        }
+    }
+}
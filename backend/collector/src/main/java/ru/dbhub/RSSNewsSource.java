@@ -1,73 +1,99 @@
 package ru.dbhub;
 
-import com.sun.syndication.feed.synd.SyndEntry;
-import com.sun.syndication.feed.synd.SyndFeed;
-import com.sun.syndication.io.FeedException;
-import com.sun.syndication.io.SyndFeedInput;
-import com.sun.syndication.io.XmlReader;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import org.springframework.lang.Nullable;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
-final class RSSNewsSource extends PageLimitedNewsSource {
+final class RSSNewsSource extends PageLimitedNewsSource<JustCollectedArticle> {
     public record Config(
         @NotNull String url,
         @NotNull Boolean isPaged,
-        @NotNull Integer maxPage
+        @NotNull Integer maxPage,
+        @Nullable @PositiveOrZero Integer prefetchPages
     ) {
     }
 
-    private final SyndFeedInput syndFeedInput = new SyndFeedInput();
-
     private final Config config;
 
-    public RSSNewsSource(Config config) {
+    private final String name;
+
+    private final PageFetcher pageFetcher;
+
+    private final PagePrefetcher pagePrefetcher;
+
+    private final List<PageFetcher.Page> fetchedPages = new ArrayList<>();
+
+    private boolean hasReachedUnchangedPage = false;
+
+    public RSSNewsSource(Config config, String name, PageFetcher pageFetcher) {
         super(config.maxPage());
         this.config = config;
+        this.name = name;
+        this.pageFetcher = pageFetcher;
+        this.pagePrefetcher = new PagePrefetcher(pageFetcher, name);
     }
 
-    private List<SyndEntry> getEntries(int pageNo) throws IOException {
-        if (!config.isPaged() && pageNo > 1) {
-            return List.of();
-        }
-
+    private String getPageUrl(int pageNo) {
         var urlBuilder = UriComponentsBuilder.fromHttpUrl(config.url);
         if (config.isPaged()) {
             urlBuilder.queryParam("paged", pageNo);
         }
-        var url = urlBuilder.build().toUri().toURL();
+        return urlBuilder.toUriString();
+    }
+
+    private List<String> getUrlsToPrefetch() {
+        if (!config.isPaged() || config.prefetchPages() == null) {
+            return List.of();
+        }
+
+        List<String> urlsToPrefetch = new ArrayList<>();
+        for (int pageNo = getPageNo() + 1; pageNo <= getPageNo() + config.prefetchPages(); ++pageNo) {
+            if (hasPage(pageNo)) {
+                urlsToPrefetch.add(getPageUrl(pageNo));
+            }
+        }
+        return urlsToPrefetch;
+    }
+
+    @Override
+    public List<JustCollectedArticle> nextArticlesPageImpl(long oldLastTimestamp) throws IOException {
+        if ((!config.isPaged() && getPageNo() > 1) || hasReachedUnchangedPage) {
+            return List.of();
+        }
 
-        SyndFeed syndFeed;
-        try {
-            syndFeed = syndFeedInput.build(new XmlReader(url));
-        } catch (FeedException exception) {
-            throw new IOException(exception);
+        var page = pagePrefetcher.fetchIfChanged(getPageUrl(getPageNo()), getUrlsToPrefetch());
+        if (page.isEmpty()) {
+            hasReachedUnchangedPage = true;
+            pagePrefetcher.cancel();
+            return List.of();
         }
+        fetchedPages.add(page.get());
 
-        List<SyndEntry> entries = new ArrayList<>();
-        for (var entryObj : syndFeed.getEntries()) {
-            entries.add((SyndEntry) entryObj);
+        var articles = FeedParser.parseUntilOlderThan(page.get().body(), oldLastTimestamp);
+        if (!articles.isEmpty() && articles.getLast().timestamp() < oldLastTimestamp) {
+            pagePrefetcher.cancel();
         }
+        return articles;
+    }
 
-        return entries;
+    @Override
+    public List<JustCollectedArticle> loadArticles(List<JustCollectedArticle> listedArticles) {
+        return listedArticles;
     }
 
-    private JustCollectedArticle entryToArticle(SyndEntry entry) {
-        return new JustCollectedArticle(
-            entry.getLink(),
-            entry.getTitle(),
-            entry.getDescription().getValue(),
-            entry.getPublishedDate().getTime() / 1000
-        );
+    @Override
+    public void commit() {
+        fetchedPages.forEach(page -> pageFetcher.remember(name, page));
+        fetchedPages.clear();
     }
 
     @Override
-    public List<JustCollectedArticle> nextArticlesPageImpl() throws IOException {
-        return getEntries(getPageNo()).stream()
-            .map(this::entryToArticle)
-            .toList();
+    public void close() {
+        pagePrefetcher.close();
     }
 }
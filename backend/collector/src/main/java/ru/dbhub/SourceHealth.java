@@ -0,0 +1,7 @@
+package ru.dbhub;
+
+public record SourceHealth(
+    int consecutiveFailures,
+    long retryAt
+) {
+}
@@ -0,0 +1,11 @@
+package ru.dbhub;
+
+import java.util.Map;
+
+public interface SourceHealthStorage {
+    Map<String, SourceHealth> getSourceHealths();
+
+    void setSourceHealth(String source, SourceHealth sourceHealth);
+
+    void removeSourceHealth(String source);
+}
@@ -0,0 +1,8 @@
+package ru.dbhub;
+
+public record SourceSchedule(
+    long lastCollectedAt,
+    long nextDueAt,
+    double articlesPerSecond
+) {
+}
@@ -0,0 +1,11 @@
+package ru.dbhub;
+
+import java.util.Map;
+
+public interface SourceScheduleStorage {
+    Map<String, SourceSchedule> getSourceSchedules();
+
+    void setSourceSchedule(String source, SourceSchedule sourceSchedule);
+
+    void removeSourceSchedule(String source);
+}
@@ -0,0 +1,88 @@
+package ru.dbhub;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Component
+class StoredLinksFilter {
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    @Value("${ru.dbhub.collector.stored-links-filter.min-capacity}")
+    private long minCapacity;
+
+    @Value("${ru.dbhub.collector.stored-links-filter.false-positive-rate}")
+    private double falsePositiveRate;
+
+    @Autowired
+    private ArticleStorage articleStorage;
+
+    private record Snapshot(BloomFilter bloomFilter, long lastSeenArticleId) {
+    }
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    private final AtomicBoolean isBuilding = new AtomicBoolean(false);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpAsync() {
+        buildAsync();
+    }
+
+    private void buildAsync() {
+        if (!isBuilding.compareAndSet(false, true)) {
+            return;
+        }
+        Thread.ofVirtual().start(() -> {
+            try {
+                build();
+                logger.info("Stored links filter is built");
+            } catch (Exception exception) {
+                logger.error("Failed to build the stored links filter", exception);
+            } finally {
+                isBuilding.set(false);
+            }
+        });
+    }
+
+    private void build() {
+        var filter = new BloomFilter(Math.max(minCapacity, 2 * articleStorage.getArticlesCount()), falsePositiveRate);
+        snapshot.set(new Snapshot(filter, articleStorage.forEachStoredLinkAfter(0, filter::add)));
+    }
+
+    void catchUp() {
+        var current = snapshot.get();
+        if (current == null || isBuilding.get()) {
+            return;
+        }
+        var caughtUp = new Snapshot(
+            current.bloomFilter(),
+            articleStorage.forEachStoredLinkAfter(current.lastSeenArticleId(), current.bloomFilter()::add)
+        );
+        snapshot.compareAndSet(current, caughtUp);
+        if (caughtUp.bloomFilter().isOverfilled()) {
+            logger.info("Stored links filter is over its capacity, rebuilding it");
+            buildAsync();
+        }
+    }
+
+    boolean mightBeStored(String link) {
+        var current = snapshot.get();
+        return current == null || current.bloomFilter().mightContain(link);
+    }
+
+    void addAll(Collection<String> links) {
+        var current = snapshot.get();
+        if (current != null) {
+            links.forEach(current.bloomFilter()::add);
+        }
+    }
+}
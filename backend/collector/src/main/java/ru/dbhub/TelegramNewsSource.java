@@ -9,7 +9,7 @@ public class TelegramNewsSource extends HTMLNewsSource {
     ) {
     }
 
-    public TelegramNewsSource(Config config) {
+    public TelegramNewsSource(Config config, String name, PageFetcher pageFetcher) {
         super(new HTMLNewsSource.Config(
             new UriTemplate("https://t.me/s/{channelName}").expand(config.channelName()).toString(),
             ":not(.service_message) .tgme_widget_message_bubble:not(:has(:is(.tgme_widget_message_bubble > .message_media_not_supported_wrap, .tgme_widget_message_poll)))",
@@ -28,7 +28,9 @@ public class TelegramNewsSource extends HTMLNewsSource {
             "link[rel=\"prev\"]",
             null,
             0,
-            false
-        ));
+            false,
+            null,
+            null
+        ), name, pageFetcher);
     }
 }
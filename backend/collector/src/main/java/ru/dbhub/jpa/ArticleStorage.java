@@ -1,28 +1,35 @@
 package ru.dbhub.jpa;
 
 import jakarta.persistence.*;
+import org.jsoup.Jsoup;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Limit;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.dbhub.Article;
+import ru.dbhub.ArticleSummary;
 import ru.dbhub.ArticleStorage;
+import ru.dbhub.ArticlesPageCursor;
 import ru.dbhub.JustCollectedArticle;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 @Entity
 @Table(
     name = "Articles",
-    indexes = {
-        @Index(columnList = "timestamp"),
-        @Index(columnList = "id,timestamp"),
-        @Index(columnList = "link")
-    }
+    indexes = {@Index(columnList = "timestamp,id")}
 )
 class ArticleModel {
     @Id
@@ -40,21 +47,14 @@ class ArticleModel {
     @Column(columnDefinition = "TEXT")
     private String text;
 
+    @Column(columnDefinition = "TEXT")
+    private String snippet;
+
     private Long timestamp;
 
     private ArticleModel() {
     }
 
-    static ArticleModel ofJustCollectedArticle(String source, JustCollectedArticle justCollectedArticle) {
-        var result = new ArticleModel();
-        result.source = source;
-        result.link = justCollectedArticle.link();
-        result.title = justCollectedArticle.title();
-        result.text = justCollectedArticle.text();
-        result.timestamp = justCollectedArticle.timestamp();
-        return result;
-    }
-
     Article toArticle() {
         return new Article(id, source, link, title, text, timestamp);
     }
@@ -68,11 +68,17 @@ class ArticleModel {
 interface ArticleRepository extends JpaRepository<ArticleModel, Long> {
     List<ArticleModel> findByIdGreaterThanOrderByIdAsc(long id, Limit limit);
 
-    List<ArticleModel> findByIdLessThanEqualOrderByTimestampDesc(long id, Pageable pageable);
+    @Query(
+        value = "SELECT * FROM articles WHERE (timestamp, id) < (?2, ?3) AND id <= ?1 " +
+            "ORDER BY timestamp DESC, id DESC LIMIT ?4",
+        nativeQuery = true
+    )
+    List<ArticleModel> findPageBefore(long boundId, long timestamp, long id, int count);
 
     Optional<ArticleModel> findTopByOrderByIdDesc();
 
-    boolean existsByLink(String link);
+    @Query("SELECT a.link FROM ArticleModel a WHERE a.link IN ?1")
+    Set<String> findLinksByLinkIn(Collection<String> links);
 }
 
 @Entity
@@ -102,12 +108,40 @@ interface LastTimestampOfSourceRepository extends JpaRepository<LastTimestampOfS
 
 @Component
 class ArticleStorageImpl implements ArticleStorage {
+    private static final int STORED_LINKS_FETCH_SIZE = 10000;
+
+    private static final long INSERT_ARTICLES_LOCK_KEY = 0x41525449434c4553L;
+
+    private static final int SNIPPET_LENGTH = 300;
+
+    private static final String SELECT_SUMMARIES =
+        "SELECT id, source, link, title, snippet, CASE WHEN snippet IS NULL THEN text END AS text, timestamp " +
+        "FROM articles ";
+
+    private static final RowMapper<ArticleSummary> SUMMARY_ROW_MAPPER = (resultSet, rowNumber) -> {
+        var snippet = resultSet.getString("snippet");
+        if (snippet == null) {
+            snippet = makeSnippet(Objects.requireNonNullElse(resultSet.getString("text"), ""));
+        }
+        return new ArticleSummary(
+            resultSet.getLong("id"),
+            resultSet.getString("source"),
+            resultSet.getString("link"),
+            resultSet.getString("title"),
+            snippet,
+            resultSet.getLong("timestamp")
+        );
+    };
+
     @Autowired
     private ArticleRepository articleRepository;
 
     @Autowired
     private LastTimestampOfSourceRepository lastTimestampOfSourceRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Override
     public List<Article> getAfter(long boundId, int count) {
         return articleRepository.findByIdGreaterThanOrderByIdAsc(boundId, Limit.of(count)).stream()
@@ -116,14 +150,35 @@ class ArticleStorageImpl implements ArticleStorage {
     }
 
     @Override
-    public List<Article> getPage(long boundId, int page, int count) {
+    public List<Article> getPage(long boundId, ArticlesPageCursor cursor, int count) {
         return articleRepository
-            .findByIdLessThanEqualOrderByTimestampDesc(boundId, PageRequest.of(page, count))
+            .findPageBefore(boundId, cursor.timestamp(), cursor.id(), count)
             .stream()
             .map(ArticleModel::toArticle)
             .toList();
     }
 
+    @Override
+    public List<ArticleSummary> getSummariesAfter(long boundId, int limit) {
+        return jdbcTemplate.query(
+            SELECT_SUMMARIES + "WHERE id > ? ORDER BY id ASC LIMIT ?", SUMMARY_ROW_MAPPER, boundId, limit
+        );
+    }
+
+    @Override
+    public List<ArticleSummary> getSummariesPage(long boundId, ArticlesPageCursor cursor, int count) {
+        return jdbcTemplate.query(
+            SELECT_SUMMARIES + "WHERE (timestamp, id) < (?, ?) AND id <= ? ORDER BY timestamp DESC, id DESC LIMIT ?",
+            SUMMARY_ROW_MAPPER,
+            cursor.timestamp(), cursor.id(), boundId, count
+        );
+    }
+
+    @Override
+    public Optional<Article> getById(long id) {
+        return articleRepository.findById(id).map(ArticleModel::toArticle);
+    }
+
     @Override
     public Optional<Long> getMaxId() {
         return articleRepository
@@ -131,6 +186,18 @@ class ArticleStorageImpl implements ArticleStorage {
             .map(ArticleModel::getId);
     }
 
+    @Override
+    @Transactional
+    public long getSafeMaxId() {
+        jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock_shared(?)", INSERT_ARTICLES_LOCK_KEY);
+        return getMaxId().orElse(0L);
+    }
+
+    @Override
+    public long getArticlesCount() {
+        return articleRepository.count();
+    }
+
     @Override
     public long getLastTimestampOfSource(String source) {
         return lastTimestampOfSourceRepository.findById(source)
@@ -144,12 +211,58 @@ class ArticleStorageImpl implements ArticleStorage {
     }
 
     @Override
-    public boolean has(String link) {
-        return articleRepository.existsByLink(link);
+    public Set<String> getStoredLinks(Collection<String> links) {
+        if (links.isEmpty()) {
+            return Set.of();
+        }
+        return articleRepository.findLinksByLinkIn(links);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long forEachStoredLinkAfter(long boundId, Consumer<String> linkConsumer) {
+        var maxStreamedId = new AtomicLong(boundId);
+        jdbcTemplate.query(
+            connection -> {
+                var statement = connection.prepareStatement("SELECT id, link FROM articles WHERE id > ?");
+                statement.setLong(1, boundId);
+                statement.setFetchSize(STORED_LINKS_FETCH_SIZE);
+                return statement;
+            },
+            (RowCallbackHandler) resultSet -> {
+                maxStreamedId.accumulateAndGet(resultSet.getLong(1), Math::max);
+                linkConsumer.accept(resultSet.getString(2));
+            }
+        );
+        return maxStreamedId.get();
+    }
+
+    static String makeSnippet(String text) {
+        var plainText = Jsoup.parseBodyFragment(text).text();
+        if (plainText.length() <= SNIPPET_LENGTH) {
+            return plainText;
+        }
+        int end = Character.isHighSurrogate(plainText.charAt(SNIPPET_LENGTH - 1)) ? SNIPPET_LENGTH - 1 : SNIPPET_LENGTH;
+        int wordEnd = plainText.lastIndexOf(' ', end);
+        if (wordEnd > SNIPPET_LENGTH / 2) {
+            end = wordEnd;
+        }
+        return plainText.substring(0, end);
     }
 
     @Override
-    public void addJustCollected(String source, JustCollectedArticle justCollectedArticle) {
-        articleRepository.save(ArticleModel.ofJustCollectedArticle(source, justCollectedArticle));
+    @Transactional
+    public void addAllJustCollected(String source, List<JustCollectedArticle> justCollectedArticles) {
+        jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock(?)", INSERT_ARTICLES_LOCK_KEY);
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO articles (source, link, title, text, snippet, timestamp) VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (link) DO NOTHING",
+            justCollectedArticles.stream()
+                .map(article -> new Object[]{
+                    source, article.link(), article.title(), article.text(), makeSnippet(article.text()),
+                    article.timestamp()
+                })
+                .toList()
+        );
     }
 }
@@ -1,6 +1,7 @@
 package ru.dbhub.jpa;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.Column;
@@ -9,6 +10,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Repository;
 import ru.dbhub.ConfigsStorage;
@@ -16,6 +18,7 @@ import ru.dbhub.NewsSourceConfig;
 
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Entity
@@ -58,14 +61,28 @@ class NewsSourceConfigModel {
 
     private boolean requiresFiltering;
 
+    @Column(columnDefinition = "TEXT")
+    private String keywords;
+
+    private Integer knownLinksToStop;
+
     private NewsSourceConfigModel() {
     }
 
-    NewsSourceConfigModel(String source, String type, String config, boolean requiresFiltering) {
+    NewsSourceConfigModel(
+        String source,
+        String type,
+        String config,
+        boolean requiresFiltering,
+        @Nullable String keywords,
+        @Nullable Integer knownLinksToStop
+    ) {
         this.source = source;
         this.type = type;
         this.config = config;
         this.requiresFiltering = requiresFiltering;
+        this.keywords = keywords;
+        this.knownLinksToStop = knownLinksToStop;
     }
 
     String getSource() {
@@ -83,6 +100,14 @@ class NewsSourceConfigModel {
     boolean isRequiresFiltering() {
         return requiresFiltering;
     }
+
+    @Nullable String getKeywords() {
+        return keywords;
+    }
+
+    @Nullable Integer getKnownLinksToStop() {
+        return knownLinksToStop;
+    }
 }
 
 @Repository
@@ -91,6 +116,8 @@ interface NewsSourceConfigRepository extends JpaRepository<NewsSourceConfigModel
 
 @Component
 class ConfigsStorageImpl implements ConfigsStorage {
+    private static final TypeReference<Set<String>> KEYWORDS_TYPE = new TypeReference<>() {};
+
     @Autowired
     private CollectorConfigRepository collectorConfigRepository;
 
@@ -129,10 +156,13 @@ class ConfigsStorageImpl implements ConfigsStorage {
                 NewsSourceConfigModel::getSource,
                 newsSourceConfigModel -> {
                     try {
+                        var keywords = newsSourceConfigModel.getKeywords();
                         return new NewsSourceConfig(
                             newsSourceConfigModel.getType(),
                             jsonMapper.readTree(newsSourceConfigModel.getConfig()),
-                            newsSourceConfigModel.isRequiresFiltering()
+                            newsSourceConfigModel.isRequiresFiltering(),
+                            keywords == null ? null : jsonMapper.readValue(keywords, KEYWORDS_TYPE),
+                            newsSourceConfigModel.getKnownLinksToStop()
                         );
                     } catch (JsonProcessingException exception) {
                         throw new RuntimeException(exception);
@@ -149,7 +179,9 @@ class ConfigsStorageImpl implements ConfigsStorage {
                     source,
                     sourceConfig.type(),
                     jsonMapper.writeValueAsString(sourceConfig.config()),
-                    sourceConfig.requiresFiltering()
+                    sourceConfig.requiresFiltering(),
+                    sourceConfig.keywords() == null ? null : jsonMapper.writeValueAsString(sourceConfig.keywords()),
+                    sourceConfig.knownLinksToStop()
                 )
             );
         } catch (JsonProcessingException e) {
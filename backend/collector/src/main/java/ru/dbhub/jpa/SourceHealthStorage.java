@@ -0,0 +1,68 @@
+package ru.dbhub.jpa;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Repository;
+import ru.dbhub.SourceHealth;
+import ru.dbhub.SourceHealthStorage;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Entity
+@Table(name = "SourceHealths")
+class SourceHealthModel {
+    @Id
+    private String source;
+
+    private Integer consecutiveFailures;
+
+    private Long retryAt;
+
+    private SourceHealthModel() {
+    }
+
+    SourceHealthModel(String source, SourceHealth sourceHealth) {
+        this.source = source;
+        this.consecutiveFailures = sourceHealth.consecutiveFailures();
+        this.retryAt = sourceHealth.retryAt();
+    }
+
+    String getSource() {
+        return source;
+    }
+
+    SourceHealth toSourceHealth() {
+        return new SourceHealth(consecutiveFailures, retryAt);
+    }
+}
+
+@Repository
+interface SourceHealthRepository extends JpaRepository<SourceHealthModel, String> {
+}
+
+@Component
+class SourceHealthStorageImpl implements SourceHealthStorage {
+    @Autowired
+    private SourceHealthRepository sourceHealthRepository;
+
+    @Override
+    public Map<String, SourceHealth> getSourceHealths() {
+        return sourceHealthRepository.findAll().stream()
+            .collect(Collectors.toMap(SourceHealthModel::getSource, SourceHealthModel::toSourceHealth));
+    }
+
+    @Override
+    public void setSourceHealth(String source, SourceHealth sourceHealth) {
+        sourceHealthRepository.save(new SourceHealthModel(source, sourceHealth));
+    }
+
+    @Override
+    public void removeSourceHealth(String source) {
+        sourceHealthRepository.deleteById(source);
+    }
+}
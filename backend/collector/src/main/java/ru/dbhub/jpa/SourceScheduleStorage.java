@@ -0,0 +1,71 @@
+package ru.dbhub.jpa;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Repository;
+import ru.dbhub.SourceSchedule;
+import ru.dbhub.SourceScheduleStorage;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Entity
+@Table(name = "SourceSchedules")
+class SourceScheduleModel {
+    @Id
+    private String source;
+
+    private Long lastCollectedAt;
+
+    private Long nextDueAt;
+
+    private Double articlesPerSecond;
+
+    private SourceScheduleModel() {
+    }
+
+    SourceScheduleModel(String source, SourceSchedule sourceSchedule) {
+        this.source = source;
+        this.lastCollectedAt = sourceSchedule.lastCollectedAt();
+        this.nextDueAt = sourceSchedule.nextDueAt();
+        this.articlesPerSecond = sourceSchedule.articlesPerSecond();
+    }
+
+    String getSource() {
+        return source;
+    }
+
+    SourceSchedule toSourceSchedule() {
+        return new SourceSchedule(lastCollectedAt, nextDueAt, articlesPerSecond);
+    }
+}
+
+@Repository
+interface SourceScheduleRepository extends JpaRepository<SourceScheduleModel, String> {
+}
+
+@Component
+class SourceScheduleStorageImpl implements SourceScheduleStorage {
+    @Autowired
+    private SourceScheduleRepository sourceScheduleRepository;
+
+    @Override
+    public Map<String, SourceSchedule> getSourceSchedules() {
+        return sourceScheduleRepository.findAll().stream()
+            .collect(Collectors.toMap(SourceScheduleModel::getSource, SourceScheduleModel::toSourceSchedule));
+    }
+
+    @Override
+    public void setSourceSchedule(String source, SourceSchedule sourceSchedule) {
+        sourceScheduleRepository.save(new SourceScheduleModel(source, sourceSchedule));
+    }
+
+    @Override
+    public void removeSourceSchedule(String source) {
+        sourceScheduleRepository.deleteById(source);
+    }
+}
@@ -1,32 +1,151 @@
 package ru.dbhub.mvc;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.lang.Nullable;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.dbhub.Article;
+import ru.dbhub.ArticleSummariesAndBoundId;
 import ru.dbhub.ArticlesAndBoundId;
+import ru.dbhub.BadArticlesPageCursorException;
 import ru.dbhub.CollectorService;
 
-import java.util.List;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
 
 @RestController
 @RequestMapping("/articles")
 public class ArticlesController {
+    private static final long STREAM_TIMEOUT_MILLIS = 30 * 60 * 1000;
+
+    private static final long STREAM_WAIT_MILLIS = 20 * 1000;
+
+    private static final int STREAM_BATCH_SIZE = 100;
+
+    private static final int MAX_ARTICLES_COUNT = 1000;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
     @Autowired
     private CollectorService collectorService;
 
+    private static void checkArticlesCount(int count) {
+        if (count <= 0 || count > MAX_ARTICLES_COUNT) {
+            throw new ResponseStatusException(
+                BAD_REQUEST, "Articles count must be between 1 and %d".formatted(MAX_ARTICLES_COUNT)
+            );
+        }
+    }
+
     @GetMapping("/after")
-    public ArticlesAndBoundId getArticlesAfter(@RequestParam long boundId, @RequestParam int limit) {
-        return collectorService.getArticlesAfter(boundId, limit);
+    public ArticlesAndBoundId getArticlesAfter(
+        @RequestParam long boundId, @RequestParam int limit, @RequestParam(required = false) @Nullable Long waitMillis
+    ) {
+        checkArticlesCount(limit);
+        if (waitMillis == null || waitMillis <= 0) {
+            return collectorService.getArticlesAfter(boundId, limit);
+        }
+        return collectorService.waitForArticlesAfter(boundId, limit, waitMillis);
     }
 
     @GetMapping("/page")
     public ArticlesAndBoundId getArticlesPage(
-        @RequestParam long boundId, @RequestParam int page, @RequestParam int count
+        @RequestParam long boundId, @RequestParam(required = false) @Nullable String cursor, @RequestParam int count
+    ) {
+        checkArticlesCount(count);
+        try {
+            return collectorService.getArticlesPage(boundId, cursor, count);
+        } catch (BadArticlesPageCursorException exception) {
+            throw new ResponseStatusException(BAD_REQUEST, "Bad articles page cursor");
+        }
+    }
+
+    @GetMapping("/summaries/after")
+    public ArticleSummariesAndBoundId getArticleSummariesAfter(@RequestParam long boundId, @RequestParam int limit) {
+        checkArticlesCount(limit);
+        return collectorService.getArticleSummariesAfter(boundId, limit);
+    }
+
+    @GetMapping("/summaries/page")
+    public ArticleSummariesAndBoundId getArticleSummariesPage(
+        @RequestParam long boundId, @RequestParam(required = false) @Nullable String cursor, @RequestParam int count
+    ) {
+        checkArticlesCount(count);
+        try {
+            return collectorService.getArticleSummariesPage(boundId, cursor, count);
+        } catch (BadArticlesPageCursorException exception) {
+            throw new ResponseStatusException(BAD_REQUEST, "Bad articles page cursor");
+        }
+    }
+
+    @GetMapping("/{id}")
+    public Article getArticle(@PathVariable long id) {
+        return collectorService.getArticle(id)
+            .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "No such article"));
+    }
+
+    private void sendArticles(SseEmitter emitter, AtomicBoolean isOpen, long boundId) {
+        try {
+            while (isOpen.get()) {
+                var summariesAndBoundId = collectorService.waitForArticleSummariesAfter(
+                    boundId, STREAM_BATCH_SIZE, STREAM_WAIT_MILLIS
+                );
+                if (summariesAndBoundId.articles().isEmpty()) {
+                    emitter.send(SseEmitter.event().comment("keep-alive"));
+                    continue;
+                }
+
+                for (var summary : summariesAndBoundId.articles()) {
+                    emitter.send(
+                        SseEmitter.event()
+                            .id(String.valueOf(summary.id()))
+                            .name("article")
+                            .data(summary, MediaType.APPLICATION_JSON)
+                    );
+                }
+                boundId = summariesAndBoundId.articles().getLast().id();
+            }
+        } catch (IOException | IllegalStateException exception) {
+            logger.debug("Articles stream is closed", exception);
+        } catch (RuntimeException exception) {
+            logger.error("Articles stream failed", exception);
+            emitter.completeWithError(exception);
+        }
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamArticles(
+        @RequestHeader(name = "Last-Event-ID", required = false) @Nullable Long lastEventId,
+        @RequestParam(required = false) @Nullable Long boundId
     ) {
-        return collectorService.getArticlesPage(boundId, page, count);
+        long startBoundId;
+        if (lastEventId != null) {
+            startBoundId = lastEventId;
+        } else if (boundId != null) {
+            startBoundId = boundId;
+        } else {
+            startBoundId = collectorService.getLatestArticleId();
+        }
+
+        var emitter = new SseEmitter(STREAM_TIMEOUT_MILLIS);
+        var isOpen = new AtomicBoolean(true);
+        emitter.onCompletion(() -> isOpen.set(false));
+        emitter.onTimeout(() -> isOpen.set(false));
+        emitter.onError(exception -> isOpen.set(false));
+
+        Thread.ofVirtual().start(() -> sendArticles(emitter, isOpen, startBoundId));
+        return emitter;
     }
 }
@@ -0,0 +1,51 @@
+package ru.dbhub;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ArticlesPageCursorTests {
+    @Test
+    void roundTrips() throws BadArticlesPageCursorException {
+        for (var cursor : new ArticlesPageCursor[]{
+            new ArticlesPageCursor(1709633730, 42),
+            new ArticlesPageCursor(0, 0),
+            new ArticlesPageCursor(-1, Long.MIN_VALUE),
+            ArticlesPageCursor.BEFORE_ALL
+        }) {
+            var encoded = cursor.encode();
+
+            assertThat(encoded).matches("[A-Za-z0-9_-]+");
+            assertThat(ArticlesPageCursor.decode(encoded)).isEqualTo(cursor);
+        }
+    }
+
+    @Test
+    void pointsAfterArticle() throws BadArticlesPageCursorException {
+        var article = new Article(42, "source", "https://example.com/42", "Title", "Text", 1709633730);
+
+        assertThat(ArticlesPageCursor.decode(ArticlesPageCursor.after(article).encode()))
+            .isEqualTo(new ArticlesPageCursor(1709633730, 42));
+    }
+
+    @Test
+    void decodesMissingCursorAsBeforeAll() throws BadArticlesPageCursorException {
+        assertThat(ArticlesPageCursor.decode(null)).isEqualTo(ArticlesPageCursor.BEFORE_ALL);
+        assertThat(ArticlesPageCursor.decode("")).isEqualTo(ArticlesPageCursor.BEFORE_ALL);
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        var encoder = Base64.getUrlEncoder().withoutPadding();
+
+        assertThatThrownBy(() -> ArticlesPageCursor.decode("not a cursor!"))
+            .isInstanceOf(BadArticlesPageCursorException.class);
+        assertThatThrownBy(() -> ArticlesPageCursor.decode(encoder.encodeToString(new byte[15])))
+            .isInstanceOf(BadArticlesPageCursorException.class);
+        assertThatThrownBy(() -> ArticlesPageCursor.decode(encoder.encodeToString(new byte[17])))
+            .isInstanceOf(BadArticlesPageCursorException.class);
+    }
+}
@@ -0,0 +1,52 @@
+package ru.dbhub;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTests {
+    private static final int CAPACITY = 100000;
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private static String link(int index) {
+        return "https://example.com/news/" + index;
+    }
+
+    @Test
+    void hasNoFalseNegatives() {
+        var filter = new BloomFilter(CAPACITY, FALSE_POSITIVE_RATE);
+        IntStream.range(0, CAPACITY).mapToObj(BloomFilterTests::link).forEach(filter::add);
+
+        assertThat(IntStream.range(0, CAPACITY).mapToObj(BloomFilterTests::link))
+            .allMatch(filter::mightContain);
+    }
+
+    @Test
+    void keepsFalsePositiveRateNearTargetAtCapacity() {
+        var filter = new BloomFilter(CAPACITY, FALSE_POSITIVE_RATE);
+        IntStream.range(0, CAPACITY).mapToObj(BloomFilterTests::link).forEach(filter::add);
+
+        long falsePositivesCount = IntStream.range(CAPACITY, 2 * CAPACITY)
+            .mapToObj(BloomFilterTests::link)
+            .filter(filter::mightContain)
+            .count();
+
+        assertThat((double) falsePositivesCount / CAPACITY).isLessThan(2 * FALSE_POSITIVE_RATE);
+    }
+
+    @Test
+    void becomesOverfilledOnlyPastCapacity() {
+        var filter = new BloomFilter(CAPACITY, FALSE_POSITIVE_RATE);
+        IntStream.range(0, CAPACITY / 2).mapToObj(BloomFilterTests::link).forEach(filter::add);
+        IntStream.range(0, CAPACITY / 2).mapToObj(BloomFilterTests::link).forEach(filter::add);
+
+        assertThat(filter.isOverfilled()).isFalse();
+
+        IntStream.range(CAPACITY / 2, 2 * CAPACITY).mapToObj(BloomFilterTests::link).forEach(filter::add);
+
+        assertThat(filter.isOverfilled()).isTrue();
+    }
+}
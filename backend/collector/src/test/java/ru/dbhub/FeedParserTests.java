@@ -0,0 +1,161 @@
+package ru.dbhub;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FeedParserTests {
+    private static List<JustCollectedArticle> parse(String feed) throws IOException {
+        return FeedParser.parseUntilOlderThan(feed.getBytes(StandardCharsets.UTF_8), 0);
+    }
+
+    @Test
+    void parsesRss2() throws IOException {
+        var articles = parse("""
+            <?xml version="1.0" encoding="UTF-8"?>
+            <rss version="2.0" xmlns:content="http://purl.org/rss/1.0/modules/content/">
+              <channel>
+                <title>Channel</title>
+                <link>https://example.com/</link>
+                <item>
+                  <title>First</title>
+                  <link>https://example.com/1</link>
+                  <description><![CDATA[First <b>description</b>]]></description>
+                  <pubDate>Tue, 05 Mar 2024 10:15:30 GMT</pubDate>
+                </item>
+                <item>
+                  <title>Second</title>
+                  <link>https://example.com/2</link>
+                  <content:encoded>Second content</content:encoded>
+                  <pubDate>Mon, 4 Mar 2024 09:00 +0300</pubDate>
+                </item>
+              </channel>
+            </rss>
+            """);
+
+        assertThat(articles).containsExactly(
+            new JustCollectedArticle("https://example.com/1", "First", "First <b>description</b>", 1709633730),
+            new JustCollectedArticle("https://example.com/2", "Second", "Second content", 1709532000)
+        );
+    }
+
+    @Test
+    void parsesAtom() throws IOException {
+        var articles = parse("""
+            <?xml version="1.0" encoding="UTF-8"?>
+            <feed xmlns="http://www.w3.org/2005/Atom">
+              <title>Feed</title>
+              <link rel="self" href="https://example.com/feed"/>
+              <entry>
+                <title>Entry</title>
+                <link rel="self" href="https://example.com/entry.atom"/>
+                <link rel="alternate" href="https://example.com/entry"/>
+                <summary>Summary</summary>
+                <content>Content</content>
+                <published>2024-03-05T10:15:30Z</published>
+                <updated>2024-03-06T00:00:00Z</updated>
+              </entry>
+              <entry>
+                <title>Updated only</title>
+                <link href="https://example.com/updated"/>
+                <content>Content</content>
+                <updated>2024-03-05T13:15:30+03:00</updated>
+              </entry>
+            </feed>
+            """);
+
+        assertThat(articles).containsExactly(
+            new JustCollectedArticle("https://example.com/entry", "Entry", "Summary", 1709633730),
+            new JustCollectedArticle("https://example.com/updated", "Updated only", "Content", 1709633730)
+        );
+    }
+
+    @Test
+    void ignoresMediaRssElements() throws IOException {
+        var articles = parse("""
+            <?xml version="1.0" encoding="UTF-8"?>
+            <rss version="2.0"
+                 xmlns:media="http://search.yahoo.com/mrss/"
+                 xmlns:dc="http://purl.org/dc/elements/1.1/">
+              <channel>
+                <item>
+                  <title>Article</title>
+                  <media:title>Picture</media:title>
+                  <link>https://example.com/article</link>
+                  <description>Description</description>
+                  <media:content url="https://example.com/picture.jpg" medium="image">
+                    <media:description>Picture description</media:description>
+                  </media:content>
+                  <pubDate>Tue, 05 Mar 2024 10:15:30 GMT</pubDate>
+                  <dc:date>2000-01-01T00:00:00Z</dc:date>
+                </item>
+              </channel>
+            </rss>
+            """);
+
+        assertThat(articles).containsExactly(
+            new JustCollectedArticle("https://example.com/article", "Article", "Description", 1709633730)
+        );
+    }
+
+    @Test
+    void usesDublinCoreDateWithoutPubDate() throws IOException {
+        var articles = parse("""
+            <rdf:RDF xmlns:rdf="http://www.w3.org/1999/02/22-rdf-syntax-ns#"
+                     xmlns="http://purl.org/rss/1.0/"
+                     xmlns:dc="http://purl.org/dc/elements/1.1/">
+              <item rdf:about="https://example.com/rdf">
+                <title>RDF</title>
+                <link>https://example.com/rdf</link>
+                <dc:date>2024-03-05T10:15:30Z</dc:date>
+              </item>
+            </rdf:RDF>
+            """);
+
+        assertThat(articles).containsExactly(
+            new JustCollectedArticle("https://example.com/rdf", "RDF", "", 1709633730)
+        );
+    }
+
+    @Test
+    void acceptsLenientDates() throws IOException {
+        for (var rawTime : List.of(
+            "Tue, 05 Mar 2024 10:15:30 GMT",
+            "05 Mar 2024 10:15:30 GMT",
+            "Tue, 5 MAR 2024 13:15:30 +0300",
+            "Tue, 05 Mar 24 10:15:30 GMT",
+            "Tue, 05 Mar 2024 10:15 +0000",
+            "2024-03-05T10:15:30Z",
+            "2024-03-05T10:15:30.000+00:00",
+            "2024-03-05T10:15:30"
+        )) {
+            var articles = parse("""
+                <rss version="2.0"><channel><item>
+                  <link>https://example.com/</link>
+                  <pubDate>%s</pubDate>
+                </item></channel></rss>
+                """.formatted(rawTime));
+
+            assertThat(articles).as(rawTime).extracting(JustCollectedArticle::timestamp)
+                .containsExactly(rawTime.endsWith("10:15 +0000") ? 1709633700L : 1709633730L);
+        }
+    }
+
+    @Test
+    void stopsAfterFirstOlderEntry() throws IOException {
+        var articles = FeedParser.parseUntilOlderThan("""
+            <rss version="2.0"><channel>
+              <item><link>https://example.com/3</link><pubDate>2024-03-05T00:00:03Z</pubDate></item>
+              <item><link>https://example.com/2</link><pubDate>2024-03-05T00:00:01Z</pubDate></item>
+              <item><link>https://example.com/1</link><pubDate>2024-03-05T00:00:00Z</pubDate></item>
+            </channel></rss>
+            """.getBytes(StandardCharsets.UTF_8), 1709596802);
+
+        assertThat(articles).extracting(JustCollectedArticle::link)
+            .containsExactly("https://example.com/3", "https://example.com/2");
+    }
+}
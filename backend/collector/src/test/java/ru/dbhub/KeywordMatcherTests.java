@@ -0,0 +1,77 @@
+package ru.dbhub;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeywordMatcherTests {
+    @Test
+    void matchesWholeWordsOnly() {
+        var matcher = new KeywordMatcher(List.of("спорт"));
+
+        assertThat(matcher.containsKeyword("спорт")).isTrue();
+        assertThat(matcher.containsKeyword("Новости: спорт")).isTrue();
+        assertThat(matcher.containsKeyword("спорт и политика")).isTrue();
+        assertThat(matcher.containsKeyword("итоги\tспорт.")).isTrue();
+        assertThat(matcher.containsKeyword("это спорт!")).isTrue();
+        assertThat(matcher.containsKeyword("это спорт?\n")).isTrue();
+
+        assertThat(matcher.containsKeyword("спортсмен")).isFalse();
+        assertThat(matcher.containsKeyword("киберспорт")).isFalse();
+        assertThat(matcher.containsKeyword("спорт, политика")).isFalse();
+        assertThat(matcher.containsKeyword("(спорт)")).isFalse();
+        assertThat(matcher.containsKeyword("")).isFalse();
+    }
+
+    @Test
+    void foldsCyrillicCase() {
+        var matcher = new KeywordMatcher(List.of("Выборы", "ёлка"));
+
+        assertThat(matcher.containsKeyword("ВЫБОРЫ прошли")).isTrue();
+        assertThat(matcher.containsKeyword("прошли выборы.")).isTrue();
+        assertThat(matcher.containsKeyword("Новогодняя ЁЛКА")).isTrue();
+        assertThat(matcher.containsKeyword("Новогодняя елка")).isFalse();
+    }
+
+    @Test
+    void matchesOverlappingKeywords() {
+        var matcher = new KeywordMatcher(List.of("he", "she", "hers", "his"));
+
+        assertThat(matcher.containsKeyword("ushers")).isFalse();
+        assertThat(matcher.containsKeyword("she sells")).isTrue();
+        assertThat(matcher.containsKeyword("hers")).isTrue();
+        assertThat(matcher.containsKeyword("this")).isFalse();
+    }
+
+    @Test
+    void checksShorterKeywordsEndingAtSamePosition() {
+        var matcher = new KeywordMatcher(List.of("ab c", "c", "новости спорта", "спорта"));
+
+        assertThat(matcher.containsKeyword("zab c")).isTrue();
+        assertThat(matcher.containsKeyword("zab cd")).isFalse();
+        assertThat(matcher.containsKeyword("Главные новости спорта")).isTrue();
+        assertThat(matcher.containsKeyword("сводка спорта.")).isTrue();
+        assertThat(matcher.containsKeyword("киберспорта")).isFalse();
+    }
+
+    @Test
+    void treatsKeywordsAsLiteralPhrases() {
+        var matcher = new KeywordMatcher(List.of("c++", "a.b", "(x|y)"));
+
+        assertThat(matcher.containsKeyword("learning c++ today")).isTrue();
+        assertThat(matcher.containsKeyword("a.b")).isTrue();
+        assertThat(matcher.containsKeyword("axb")).isFalse();
+        assertThat(matcher.containsKeyword("(x|y)")).isTrue();
+        assertThat(matcher.containsKeyword("x")).isFalse();
+    }
+
+    @Test
+    void ignoresEmptyKeywords() {
+        var matcher = new KeywordMatcher(List.of(""));
+
+        assertThat(matcher.containsKeyword("anything")).isFalse();
+        assertThat(matcher.containsKeyword("")).isFalse();
+    }
+}
@@ -0,0 +1,31 @@
+package ru.dbhub;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PageFetcherTests {
+    @Test
+    void convertsInternationalizedHostsToPunycode() throws IOException {
+        var uri = PageFetcher.toUri("https://пример.рф/новости?q=да");
+
+        assertThat(uri.getHost()).isEqualTo("xn--e1afmkfd.xn--p1ai");
+        assertThat(uri.getRawPath()).isEqualTo("/%D0%BD%D0%BE%D0%B2%D0%BE%D1%81%D1%82%D0%B8");
+        assertThat(uri.getRawQuery()).isEqualTo("q=%D0%B4%D0%B0");
+    }
+
+    @Test
+    void keepsUserInfoPortAndLiteralAddresses() throws IOException {
+        assertThat(PageFetcher.toUri("http://user@example.com:8080/a b").toString())
+            .isEqualTo("http://user@example.com:8080/a%20b");
+        assertThat(PageFetcher.toUri("http://[::1]:8080/").getHost()).isEqualTo("[::1]");
+    }
+
+    @Test
+    void rejectsUrlsWithoutScheme() {
+        assertThatThrownBy(() -> PageFetcher.toUri("example.com/news")).isInstanceOf(IOException.class);
+    }
+}
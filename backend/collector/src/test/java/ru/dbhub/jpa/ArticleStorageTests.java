@@ -0,0 +1,120 @@
+package ru.dbhub.jpa;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.dbhub.ArticleStorage;
+import ru.dbhub.ArticleSummary;
+import ru.dbhub.JustCollectedArticle;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ArticleStorageImpl.class)
+@Testcontainers
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ArticleStorageTests {
+    private static final int WRITERS = 2;
+
+    private static final int BATCHES_PER_WRITER = 50;
+
+    private static final int BATCH_SIZE = 20;
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void registerDatasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private ArticleStorage articleStorage;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static List<JustCollectedArticle> makeBatch(int writer, int batch) {
+        return IntStream.range(0, BATCH_SIZE)
+            .mapToObj(idx -> {
+                var link = "https://example.com/" + writer + "/" + batch + "/" + idx;
+                return new JustCollectedArticle(link, "Title", "Text", batch);
+            })
+            .toList();
+    }
+
+    private long readAfter(long lastSeenId, Set<String> seenLinks) {
+        for (var article : articleStorage.getAfter(lastSeenId, 1000)) {
+            seenLinks.add(article.link());
+            lastSeenId = article.id();
+        }
+        return lastSeenId;
+    }
+
+    @Test
+    void concurrentWritersNeverExposeIdsOutOfOrder() {
+        try (var executor = Executors.newFixedThreadPool(WRITERS)) {
+            var writers = CompletableFuture.allOf(
+                IntStream.range(0, WRITERS)
+                    .mapToObj(writer -> CompletableFuture.runAsync(
+                        () -> IntStream.range(0, BATCHES_PER_WRITER).forEach(
+                            batch -> articleStorage.addAllJustCollected("source" + writer, makeBatch(writer, batch))
+                        ),
+                        executor
+                    ))
+                    .toArray(CompletableFuture[]::new)
+            );
+
+            Set<String> seenLinks = new HashSet<>();
+            long lastSeenId = 0;
+            while (!writers.isDone()) {
+                lastSeenId = readAfter(lastSeenId, seenLinks);
+            }
+            writers.join();
+            readAfter(lastSeenId, seenLinks);
+
+            assertThat(seenLinks)
+                .filteredOn(link -> link.startsWith("https://example.com/"))
+                .hasSize(WRITERS * BATCHES_PER_WRITER * BATCH_SIZE);
+        }
+    }
+
+    @Test
+    void summariesOfRowsWithoutSnippetUseNormalizedText() {
+        var text = "<p>Lead   paragraph</p>\n\n" + "<b>word</b> ".repeat(100);
+        long boundId = articleStorage.getMaxId().orElse(0L);
+        jdbcTemplate.update(
+            "INSERT INTO articles (source, link, title, text, snippet, timestamp) VALUES (?, ?, ?, ?, NULL, ?)",
+            "legacy", "https://legacy.example.org/1", "Title", text, 1
+        );
+
+        var snippets = articleStorage.getSummariesAfter(boundId, 10).stream().map(ArticleSummary::snippet).toList();
+
+        assertThat(snippets).containsExactly(ArticleStorageImpl.makeSnippet(text));
+        assertThat(snippets.getFirst())
+            .startsWith("Lead paragraph word word")
+            .endsWith("word")
+            .doesNotContain("<", "  ")
+            .hasSizeLessThanOrEqualTo(300);
+    }
+}
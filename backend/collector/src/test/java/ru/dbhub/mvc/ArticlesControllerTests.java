@@ -0,0 +1,85 @@
+package ru.dbhub.mvc;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.dbhub.ArticleSummariesAndBoundId;
+import ru.dbhub.ArticlesAndBoundId;
+import ru.dbhub.ArticlesPageCursor;
+import ru.dbhub.CollectorService;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ArticlesController.class)
+class ArticlesControllerTests {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CollectorService collectorService;
+
+    @BeforeEach
+    void decodeCursorsLikeCollectorService() throws Exception {
+        when(collectorService.getArticlesPage(anyLong(), any(), anyInt())).thenAnswer(invocation -> {
+            ArticlesPageCursor.decode(invocation.getArgument(1));
+            return new ArticlesAndBoundId(List.of(), invocation.getArgument(0), null);
+        });
+        when(collectorService.getArticleSummariesPage(anyLong(), any(), anyInt())).thenAnswer(invocation -> {
+            ArticlesPageCursor.decode(invocation.getArgument(1));
+            return new ArticleSummariesAndBoundId(List.of(), invocation.getArgument(0), null);
+        });
+    }
+
+    @Test
+    void returnsPageForValidCursor() throws Exception {
+        var cursor = new ArticlesPageCursor(1709633730, 42).encode();
+
+        mockMvc.perform(get("/articles/page").param("boundId", "100").param("cursor", cursor).param("count", "10"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.boundId").value(100));
+        mockMvc.perform(get("/articles/summaries/page").param("boundId", "100").param("count", "10"))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    void rejectsBadCursor() throws Exception {
+        mockMvc.perform(get("/articles/page").param("boundId", "100").param("cursor", "garbage").param("count", "10"))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(
+                get("/articles/summaries/page").param("boundId", "100").param("cursor", "!!").param("count", "10")
+            )
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void rejectsOutOfRangeCount() throws Exception {
+        for (var count : List.of("0", "-1", "1001")) {
+            mockMvc.perform(get("/articles/page").param("boundId", "100").param("count", count))
+                .andExpect(status().isBadRequest());
+            mockMvc.perform(get("/articles/summaries/page").param("boundId", "100").param("count", count))
+                .andExpect(status().isBadRequest());
+            mockMvc.perform(get("/articles/after").param("boundId", "100").param("limit", count))
+                .andExpect(status().isBadRequest());
+            mockMvc.perform(get("/articles/summaries/after").param("boundId", "100").param("limit", count))
+                .andExpect(status().isBadRequest());
+        }
+
+        verify(collectorService, never()).getArticlesPage(anyLong(), any(), anyInt());
+        verify(collectorService, never()).getArticleSummariesPage(anyLong(), any(), anyInt());
+        verify(collectorService, never()).getArticlesAfter(anyLong(), anyInt());
+        verify(collectorService, never()).getArticleSummariesAfter(anyLong(), anyInt());
+    }
+}
@@ -0,0 +1,34 @@
+package ru.dbhub;
+
+import java.util.Collection;
+
+public record CollectShard(
+    String memberId,
+    Collection<String> liveMemberIds
+) {
+    private static long hash(String memberId, String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < memberId.length(); ++i) {
+            hash = (hash ^ memberId.charAt(i)) * 0x100000001b3L;
+        }
+        hash = (hash ^ '\n') * 0x100000001b3L;
+        for (int i = 0; i < key.length(); ++i) {
+            hash = (hash ^ key.charAt(i)) * 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    public boolean owns(String key) {
+        long ownHash = hash(memberId, key);
+        for (var liveMemberId : liveMemberIds) {
+            long hash = hash(liveMemberId, key);
+            if (hash > ownHash || (hash == ownHash && liveMemberId.compareTo(memberId) < 0)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
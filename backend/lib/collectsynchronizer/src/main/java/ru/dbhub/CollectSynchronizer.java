@@ -1,10 +1,16 @@
 package ru.dbhub;
 
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
-import java.time.Instant;
+import java.util.HashSet;
+import java.util.OptionalLong;
 import java.util.UUID;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -12,9 +18,19 @@ import java.util.concurrent.TimeUnit;
 
 @Component
 class CollectSynchronizer {
-    private static final long HEARTBEAT_RATE = 60;
+    private static final long HEARTBEAT_RATE = 10;
 
-    private static final long INITIAL_SLEEP = 60;
+    private static final long MISSED_HEARTBEATS_TO_DIE = 3;
+
+    private static final long MISSED_HEARTBEATS_TO_PRUNE = 60;
+
+    private static final long LEASE_TTL = 15;
+
+    private static final long LEASE_RENEW_RATE = 5;
+
+    private static final long NO_FENCING_TOKEN = -1;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
 
     @Value("${ru.dbhub.collectsynchronizer.group}")
     private String groupName;
@@ -24,30 +40,99 @@ class CollectSynchronizer {
     @Autowired
     private CollectSynchronizerStorage collectSynchronizerStorage;
 
-    private Long order;
+    private final String id = UUID.randomUUID().toString();
 
-    private String id;
+    private boolean isHeartbeating = false;
+
+    private boolean isRenewingLease = false;
+
+    private volatile long fencingToken = NO_FENCING_TOKEN;
 
     private void heartbeat() {
-        collectSynchronizerStorage.addRecord(groupName, order, id, Instant.now().toEpochMilli());
-        scheduler.schedule(this::heartbeat, HEARTBEAT_RATE, TimeUnit.SECONDS);
+        try {
+            collectSynchronizerStorage.upsertMember(groupName, id);
+            collectSynchronizerStorage.removeMembersOlderThan(MISSED_HEARTBEATS_TO_PRUNE * HEARTBEAT_RATE * 1000);
+        } catch (RuntimeException exception) {
+            logger.error("Failed to send a heartbeat", exception);
+        } finally {
+            scheduler.schedule(this::heartbeat, HEARTBEAT_RATE, TimeUnit.SECONDS);
+        }
     }
 
-    public boolean shouldCollect() {
-        if (id == null) {
-            order = Instant.now().toEpochMilli();
-            id = UUID.randomUUID().toString();
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void startHeartbeat() {
+        if (!isHeartbeating) {
+            isHeartbeating = true;
             heartbeat();
-            try {
-                Thread.sleep(INITIAL_SLEEP * 1000);
-            } catch (InterruptedException e) {
-                throw new RuntimeException(e);
-            }
         }
+    }
+
+    private boolean renewLease() {
+        var acquiredFencingToken = collectSynchronizerStorage.tryAcquireLease(groupName, id, LEASE_TTL * 1000);
+
+        if (acquiredFencingToken.isEmpty()) {
+            fencingToken = NO_FENCING_TOKEN;
+            return false;
+        }
+
+        if (acquiredFencingToken.getAsLong() != fencingToken) {
+            logger.info("Acquired the lease of group {} with fencing token {}", groupName, acquiredFencingToken);
+        }
+        fencingToken = acquiredFencingToken.getAsLong();
+        return true;
+    }
+
+    private void renewLeasePeriodically() {
+        try {
+            renewLease();
+        } catch (RuntimeException exception) {
+            logger.error("Failed to renew the lease", exception);
+        } finally {
+            scheduler.schedule(this::renewLeasePeriodically, LEASE_RENEW_RATE, TimeUnit.SECONDS);
+        }
+    }
+
+    private synchronized void startLeaseRenewalIfNeeded() {
+        if (!isRenewingLease) {
+            isRenewingLease = true;
+            scheduler.schedule(this::renewLeasePeriodically, LEASE_RENEW_RATE, TimeUnit.SECONDS);
+        }
+    }
 
-        return collectSynchronizerStorage
-            .getIdOfLeastByOrderAndIdAfterTimestamp(groupName, Instant.now().toEpochMilli() - 2 * 1000 * HEARTBEAT_RATE)
-            .orElseThrow()
-            .equals(id);
+    public boolean shouldCollect() {
+        startLeaseRenewalIfNeeded();
+        return renewLease();
+    }
+
+    public boolean isStillLeader() {
+        var currentFencingToken = fencingToken;
+        return currentFencingToken != NO_FENCING_TOKEN
+            && collectSynchronizerStorage.isLeaseHeld(groupName, id, currentFencingToken);
+    }
+
+    public OptionalLong getFencingToken() {
+        var currentFencingToken = fencingToken;
+        return currentFencingToken == NO_FENCING_TOKEN ? OptionalLong.empty() : OptionalLong.of(currentFencingToken);
+    }
+
+    public CollectShard getShard() {
+        startHeartbeat();
+
+        var liveMemberIds = new HashSet<>(collectSynchronizerStorage.getIdsHeartbeatingWithin(
+            groupName, MISSED_HEARTBEATS_TO_DIE * HEARTBEAT_RATE * 1000
+        ));
+        liveMemberIds.add(id);
+        return new CollectShard(id, liveMemberIds);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+        if (isHeartbeating) {
+            collectSynchronizerStorage.removeMember(id);
+        }
+        if (fencingToken != NO_FENCING_TOKEN) {
+            collectSynchronizerStorage.releaseLease(groupName, id);
+        }
     }
 }
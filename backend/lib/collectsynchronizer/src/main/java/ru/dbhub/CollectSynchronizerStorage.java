@@ -1,9 +1,20 @@
 package ru.dbhub;
 
-import java.util.Optional;
+import java.util.List;
+import java.util.OptionalLong;
 
 public interface CollectSynchronizerStorage {
-    void addRecord(String groupName, long order, String id, long timestamp);
+    void upsertMember(String groupName, String id);
 
-    Optional<String> getIdOfLeastByOrderAndIdAfterTimestamp(String groupName, long timestamp);
+    void removeMembersOlderThan(long ageMillis);
+
+    void removeMember(String id);
+
+    List<String> getIdsHeartbeatingWithin(String groupName, long ageMillis);
+
+    OptionalLong tryAcquireLease(String groupName, String ownerId, long ttlMillis);
+
+    boolean isLeaseHeld(String groupName, String ownerId, long fencingToken);
+
+    void releaseLease(String groupName, String ownerId);
 }
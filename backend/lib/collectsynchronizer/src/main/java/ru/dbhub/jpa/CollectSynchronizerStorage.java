@@ -2,72 +2,117 @@ package ru.dbhub.jpa;
 
 import jakarta.persistence.*;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
-import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 import ru.dbhub.CollectSynchronizerStorage;
 
-import java.util.Optional;
+import java.util.List;
+import java.util.OptionalLong;
 
 @Entity
-@Table(name = "CollectSyncV2", indexes = {@Index(columnList = "group_name,id"), @Index(columnList = "\"order\",id"), @Index(columnList = "timestamp")})
-class CollectSynchronizerRecordModel {
+@Table(name = "CollectSyncMembers", indexes = {@Index(columnList = "group_name,timestamp")})
+class CollectSyncMemberModel {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long recordId;
+    private String id;
 
     private String groupName;
 
-    @Column(name = "\"order\"")
-    private Long order;
-
-    private String id;
-
     private Long timestamp;
 
-    private CollectSynchronizerRecordModel() {
+    private CollectSyncMemberModel() {
     }
+}
 
-    CollectSynchronizerRecordModel(String groupName, Long order, String id, Long timestamp) {
-        this.groupName = groupName;
-        this.order = order;
-        this.id = id;
-        this.timestamp = timestamp;
-    }
+@Entity
+@Table(name = "CollectSyncLeases")
+class CollectSyncLeaseModel {
+    @Id
+    private String groupName;
 
-    String getId() {
-        return id;
-    }
-}
+    private String ownerId;
+
+    private Long fencingToken;
 
-@Repository
-interface CollectSynchronizerRepository extends JpaRepository<CollectSynchronizerRecordModel, Long> {
-    @Query(
-        "SELECT c " +
-        "FROM CollectSynchronizerRecordModel c " +
-        "WHERE groupName = ?1 " +
-        "AND timestamp > ?2 " +
-        "ORDER BY order, id ASC " +
-        "LIMIT 1"
-    )
-    Optional<CollectSynchronizerRecordModel> findLeastByOrderAndIdAfterTimestamp(String groupName, long timestamp);
+    private Long expiresAt;
+
+    private CollectSyncLeaseModel() {
+    }
 }
 
 @Component
 class CollectSynchronizerStorageImpl implements CollectSynchronizerStorage {
+    private static final String DATABASE_NOW_MILLIS = "(EXTRACT(EPOCH FROM clock_timestamp()) * 1000)::bigint";
+
     @Autowired
-    private CollectSynchronizerRepository collectSynchronizerRepository;
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void upsertMember(String groupName, String id) {
+        jdbcTemplate.update(
+            "INSERT INTO collect_sync_members (id, group_name, timestamp) VALUES (?, ?, " + DATABASE_NOW_MILLIS + ") " +
+            "ON CONFLICT (id) DO UPDATE SET group_name = EXCLUDED.group_name, timestamp = EXCLUDED.timestamp",
+            id, groupName
+        );
+    }
+
+    @Override
+    public void removeMembersOlderThan(long ageMillis) {
+        jdbcTemplate.update(
+            "DELETE FROM collect_sync_members WHERE timestamp < " + DATABASE_NOW_MILLIS + " - ?", ageMillis
+        );
+    }
+
+    @Override
+    public void removeMember(String id) {
+        jdbcTemplate.update("DELETE FROM collect_sync_members WHERE id = ?", id);
+    }
+
+    @Override
+    public List<String> getIdsHeartbeatingWithin(String groupName, long ageMillis) {
+        return jdbcTemplate.queryForList(
+            "SELECT id FROM collect_sync_members WHERE group_name = ? AND timestamp > " + DATABASE_NOW_MILLIS + " - ?",
+            String.class,
+            groupName, ageMillis
+        );
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public OptionalLong tryAcquireLease(String groupName, String ownerId, long ttlMillis) {
+        return jdbcTemplate.query(
+            "INSERT INTO collect_sync_leases (group_name, owner_id, fencing_token, expires_at) " +
+            "VALUES (?, ?, 1, " + DATABASE_NOW_MILLIS + " + ?) " +
+            "ON CONFLICT (group_name) DO UPDATE SET " +
+            "owner_id = EXCLUDED.owner_id, " +
+            "fencing_token = CASE WHEN collect_sync_leases.owner_id = EXCLUDED.owner_id " +
+            "THEN collect_sync_leases.fencing_token ELSE collect_sync_leases.fencing_token + 1 END, " +
+            "expires_at = EXCLUDED.expires_at " +
+            "WHERE collect_sync_leases.owner_id = EXCLUDED.owner_id " +
+            "OR collect_sync_leases.expires_at < " + DATABASE_NOW_MILLIS + " " +
+            "RETURNING fencing_token",
+            resultSet -> resultSet.next() ? OptionalLong.of(resultSet.getLong(1)) : OptionalLong.empty(),
+            groupName, ownerId, ttlMillis
+        );
+    }
 
     @Override
-    public void addRecord(String groupName, long order, String id, long timestamp) {
-        collectSynchronizerRepository.save(new CollectSynchronizerRecordModel(groupName, order, id, timestamp));
+    public boolean isLeaseHeld(String groupName, String ownerId, long fencingToken) {
+        return jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM collect_sync_leases " +
+            "WHERE group_name = ? AND owner_id = ? AND fencing_token = ? AND expires_at > " + DATABASE_NOW_MILLIS,
+            Long.class,
+            groupName, ownerId, fencingToken
+        ) > 0;
     }
 
     @Override
-    public Optional<String> getIdOfLeastByOrderAndIdAfterTimestamp(String groupName, long timestamp) {
-        return collectSynchronizerRepository
-            .findLeastByOrderAndIdAfterTimestamp(groupName, timestamp)
-            .map(CollectSynchronizerRecordModel::getId);
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void releaseLease(String groupName, String ownerId) {
+        jdbcTemplate.update(
+            "UPDATE collect_sync_leases SET expires_at = 0 WHERE group_name = ? AND owner_id = ?",
+            groupName, ownerId
+        );
     }
 }
@@ -0,0 +1,57 @@
+package ru.dbhub;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CollectShardTests {
+    private static final List<String> MEMBERS = List.of("member-a", "member-b", "member-c", "member-d");
+
+    private static final List<String> KEYS = IntStream.range(0, 10000).mapToObj(idx -> "source-" + idx).toList();
+
+    private static List<String> ownersOf(String key, List<String> liveMembers) {
+        return liveMembers.stream()
+            .filter(member -> new CollectShard(member, liveMembers).owns(key))
+            .toList();
+    }
+
+    @Test
+    void everyKeyHasExactlyOneOwner() {
+        for (var key : KEYS) {
+            assertThat(ownersOf(key, MEMBERS)).hasSize(1);
+        }
+    }
+
+    @Test
+    void singleMemberOwnsEverything() {
+        var shard = new CollectShard("member-a", List.of("member-a"));
+        assertThat(KEYS).allMatch(shard::owns);
+    }
+
+    @Test
+    void keysAreSpreadEvenly() {
+        long fairShare = KEYS.size() / MEMBERS.size();
+        for (var member : MEMBERS) {
+            var shard = new CollectShard(member, MEMBERS);
+            long ownedCount = KEYS.stream().filter(shard::owns).count();
+            assertThat(ownedCount).isBetween(fairShare * 9 / 10, fairShare * 11 / 10);
+        }
+    }
+
+    @Test
+    void onlyKeysOfLeavingMemberMove() {
+        var remainingMembers = MEMBERS.subList(0, MEMBERS.size() - 1);
+        var leavingMember = MEMBERS.getLast();
+
+        for (var key : KEYS) {
+            var oldOwner = ownersOf(key, MEMBERS).getFirst();
+            var newOwner = ownersOf(key, remainingMembers).getFirst();
+            if (!oldOwner.equals(leavingMember)) {
+                assertThat(newOwner).isEqualTo(oldOwner);
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package ru.dbhub;
+
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+
+public record ArticleSummariesAndBoundId(
+    List<ArticleSummary> articles,
+    long boundId,
+    @Nullable String nextCursor
+) {
+}
@@ -0,0 +1,11 @@
+package ru.dbhub;
+
+public record ArticleSummary(
+    long id,
+    String source,
+    String link,
+    String title,
+    String snippet,
+    long timestamp
+) {
+}
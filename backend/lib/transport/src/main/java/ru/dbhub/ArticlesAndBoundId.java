@@ -1,9 +1,12 @@
 package ru.dbhub;
 
+import org.springframework.lang.Nullable;
+
 import java.util.List;
 
 public record ArticlesAndBoundId(
     List<Article> articles,
-    long boundId
+    long boundId,
+    @Nullable String nextCursor
 ) {
 }
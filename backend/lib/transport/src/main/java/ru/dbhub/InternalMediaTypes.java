@@ -0,0 +1,14 @@
+package ru.dbhub;
+
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+public final class InternalMediaTypes {
+    public static final MediaType COMPACT = new MediaType("application", "x-jackson-smile");
+
+    public static final List<MediaType> ACCEPTED = List.of(COMPACT, MediaType.APPLICATION_JSON);
+
+    private InternalMediaTypes() {
+    }
+}
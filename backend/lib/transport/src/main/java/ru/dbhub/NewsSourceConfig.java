@@ -2,10 +2,16 @@ package ru.dbhub;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import org.springframework.lang.Nullable;
+
+import java.util.Set;
 
 public record NewsSourceConfig(
     @NotNull String type,
     @NotNull JsonNode config,
-    @NotNull Boolean requiresFiltering
+    @NotNull Boolean requiresFiltering,
+    @Nullable Set<@NotNull String> keywords,
+    @Nullable @PositiveOrZero Integer knownLinksToStop
 ) {
 }
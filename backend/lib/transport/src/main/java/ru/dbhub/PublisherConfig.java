@@ -1,9 +1,11 @@
 package ru.dbhub;
 
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 
 public record PublisherConfig(
     @NotNull Long rate,
-    @NotNull Integer limit
+    @NotNull @Positive @Max(1000) Integer limit
 ) {
 }
@@ -2,5 +2,5 @@ package ru.dbhub;
 
 public interface PublisherOffsetStorage {
     long getOffset();
-    void setOffset(long id);
+    boolean setOffset(long id, long fencingToken);
 }
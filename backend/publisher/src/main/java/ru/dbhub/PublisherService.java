@@ -7,10 +7,12 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.context.event.EventListener;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.UriComponentsBuilder;
+import reactor.netty.http.client.HttpClient;
 
 import java.time.Instant;
 import java.time.ZoneId;
@@ -53,11 +55,15 @@ public class PublisherService {
         @Value("${ru.dbhub.publisher.telegram-bot-token}") String telegramBotToken,
         @Value("${ru.dbhub.publisher.telegram-channel-username}") String telegramChannelUsername
     ) {
-        this.collectorWebClient = WebClient.create(
-            UriComponentsBuilder.fromUriString(collectorUrl)
-                .path("/articles")
-                .toUriString()
-        );
+        this.collectorWebClient = WebClient.builder()
+            .baseUrl(
+                UriComponentsBuilder.fromUriString(collectorUrl)
+                    .path("/articles")
+                    .toUriString()
+            )
+            .clientConnector(new ReactorClientHttpConnector(HttpClient.create().compress(true)))
+            .defaultHeaders(headers -> headers.setAccept(InternalMediaTypes.ACCEPTED))
+            .build();
 
         this.telegramWebClient = WebClient.create(
             UriComponentsBuilder.fromUriString(
@@ -152,6 +158,14 @@ public class PublisherService {
         }
     }
 
+    private boolean saveOffset(long offset, long fencingToken) {
+        if (!publisherOffsetStorage.setOffset(offset, fencingToken)) {
+            logger.warn("Offset was fenced off by a newer leader, not saving it");
+            return false;
+        }
+        return true;
+    }
+
     @Transactional
     public void publish() {
         var publisherConfigOptional = getPublisherConfig();
@@ -168,12 +182,30 @@ public class PublisherService {
             logger.info("Not publishing news because the synchronizer decided so");
             return;
         }
+        var fencingToken = collectSynchronizer.getFencingToken();
+        if (fencingToken.isEmpty()) {
+            logger.info("Not publishing news because the lease was lost");
+            return;
+        }
 
         logger.info("Starting to publish news");
 
         var articlesAndOffset = getNewArticles(publisherConfig);
-        articlesAndOffset.articles().forEach(this::sendArticleToTelegram);
-        publisherOffsetStorage.setOffset(articlesAndOffset.boundId());
+        Long lastSentArticleId = null;
+        for (var article : articlesAndOffset.articles()) {
+            if (!collectSynchronizer.isStillLeader()) {
+                logger.warn("Lost leadership while publishing news, not sending the rest");
+                if (lastSentArticleId != null) {
+                    saveOffset(lastSentArticleId, fencingToken.getAsLong());
+                }
+                return;
+            }
+            sendArticleToTelegram(article);
+            lastSentArticleId = article.id();
+        }
+        if (!saveOffset(articlesAndOffset.boundId(), fencingToken.getAsLong())) {
+            return;
+        }
 
         logger.info("Finished publishing news");
     }
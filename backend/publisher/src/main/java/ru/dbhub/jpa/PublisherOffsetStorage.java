@@ -3,6 +3,7 @@ package ru.dbhub.jpa;
 import jakarta.persistence.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Repository;
 import ru.dbhub.PublisherOffsetStorage;
@@ -18,11 +19,9 @@ class PublisherOffsetModel {
     @Column(name = "\"offset\"")
     private Long offset;
 
-    private PublisherOffsetModel() {
-    }
+    private Long fencingToken;
 
-    PublisherOffsetModel(long offset) {
-        this.offset = offset;
+    private PublisherOffsetModel() {
     }
 
     long getOffset() {
@@ -39,6 +38,9 @@ class PublisherOffsetStorageImpl implements PublisherOffsetStorage {
     @Autowired
     private PublisherOffsetRepository publisherOffsetRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Override
     public long getOffset() {
         return publisherOffsetRepository.findById(PublisherOffsetModel.FAKE_ID)
@@ -47,7 +49,12 @@ class PublisherOffsetStorageImpl implements PublisherOffsetStorage {
     }
 
     @Override
-    public void setOffset(long offset) {
-        publisherOffsetRepository.save(new PublisherOffsetModel(offset));
+    public boolean setOffset(long offset, long fencingToken) {
+        return jdbcTemplate.update(
+            "INSERT INTO publisher_offset (id, \"offset\", fencing_token) VALUES (?, ?, ?) " +
+            "ON CONFLICT (id) DO UPDATE SET \"offset\" = EXCLUDED.\"offset\", fencing_token = EXCLUDED.fencing_token " +
+            "WHERE publisher_offset.fencing_token IS NULL OR publisher_offset.fencing_token <= EXCLUDED.fencing_token",
+            PublisherOffsetModel.FAKE_ID, offset, fencingToken
+        ) > 0;
     }
 }
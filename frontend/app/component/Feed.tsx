@@ -1,4 +1,4 @@
-import React, { useEffect, useRef, useState } from "react";
+import React, { useEffect, useState } from "react";
 
 interface Article {
     id: number,
@@ -9,106 +9,91 @@ interface Article {
     timestamp: number,
 }
 
+interface ArticleSummary {
+    id: number,
+    source: string,
+    link: string,
+    title: string,
+    snippet: string,
+    timestamp: number,
+}
+
 interface ArticleAndInfo {
-    article: Article,
+    article: ArticleSummary,
+    text: string | null,
     isShown: boolean,
 }
 
 interface ArticleToShow {
-    article: Article,
+    article: ArticleSummary,
+    text: string | null,
     isShown: boolean,
     isTop: boolean,
     idx: number,
 }
 
 const NO_BOUND_ID = -1
-const UPDATE_INTERVAL = 5000
 const PAGE_ARTICLES_COUNT = 10
-const MAX_ARTICLES_IN_UPDATE_REQUEST = 20
 const API_URL = process.env.DBHUB_API_URL
 
 interface Top {
     articles: ArticleAndInfo[],
-    loadingNow: boolean,
-    boundId: number,
 }
 
 interface Pages {
     articles: ArticleAndInfo[],
-    nextPage: number,
+    nextCursor: string | null,
+    isLastPageLoaded: boolean,
     loadingNow: boolean,
     boundId: number,
 }
 
-interface ArticlesAndBoundId {
-    articles: Article[],
+const makeInitialPages = (): Pages => ({
+    articles: [],
+    nextCursor: null,
+    isLastPageLoaded: false,
+    loadingNow: false,
+    boundId: NO_BOUND_ID
+})
+
+interface ArticleSummariesAndBoundId {
+    articles: ArticleSummary[],
     boundId: number,
+    nextCursor: string | null,
 }
 
 export default function Feed() {
     const [top, setTop] = useState<Top>({
         articles: [],
-        loadingNow: false,
-        boundId: NO_BOUND_ID
     })
 
-    const [pages, setPages] = useState<Pages>({
-        articles: [],
-        nextPage: 0,
-        loadingNow: false,
-        boundId: NO_BOUND_ID
-    })
+    const [pages, setPages] = useState<Pages>(makeInitialPages)
 
-    const loadTop = () => {
-        if (top.loadingNow) {
-            return;
-        }
+    const [reloadsCount, setReloadsCount] = useState(0)
 
+    useEffect(() => {
         if (pages.boundId == NO_BOUND_ID) {
             return
         }
 
-        setTop({
-            ...top,
-            loadingNow: true,
+        const eventSource = new EventSource(API_URL + '/api/articles/stream?boundId=' + pages.boundId)
+        eventSource.addEventListener('article', event => {
+            const summary = JSON.parse((event as MessageEvent).data) as ArticleSummary
+            setTop(top => ({
+                articles: [...top.articles, {article: summary, text: null, isShown: false}],
+            }))
         })
-
-        let url = API_URL + '/api/articles/after?'
-        url += 'boundId=' + (top.boundId == NO_BOUND_ID ? pages.boundId : top.boundId)
-        url += '&limit=' + MAX_ARTICLES_IN_UPDATE_REQUEST
-
-        fetch(url)
-            .then(response => {
-                if (!response.ok) {
-                    return Promise.reject();
-                }
-                return response.json();
-            })
-            .then(json => {
-                const {articles: newArticles, boundId: newBoundId} = json as ArticlesAndBoundId;
-
-                const newTop: Top = {
-                    articles: top.articles,
-                    boundId: newBoundId,
-                    loadingNow: false,
-                }
-                newArticles.forEach(article => newTop.articles.push({article: article, isShown: false}))
-                setTop(newTop)
-            })
-            .catch(() => {
-                setTop({
-                    ...top,
-                    loadingNow: false,
-                })
-            })
-    }
-
-    const loadTopRef = useRef<() => void>(null);
-    useEffect(() => {loadTopRef.current = loadTop}, [top, pages]);
-    useEffect(() => {setInterval(() => loadTopRef.current(), UPDATE_INTERVAL)}, []);
+        eventSource.addEventListener('reset', () => {
+            eventSource.close()
+            setTop({articles: []})
+            setPages(makeInitialPages())
+            setReloadsCount(count => count + 1)
+        })
+        return () => eventSource.close()
+    }, [pages.boundId]);
 
     const loadNextPage = () => {
-        if (pages.loadingNow) {
+        if (pages.loadingNow || pages.isLastPageLoaded) {
             return;
         }
         setPages({
@@ -116,10 +101,12 @@ export default function Feed() {
             loadingNow: true
         })
 
-        let url = API_URL + '/api/articles/page?'
+        let url = API_URL + '/api/articles/summaries/page?'
         url += 'count=' + PAGE_ARTICLES_COUNT
-        url += '&page=' + pages.nextPage
         url += '&boundId=' + pages.boundId
+        if (pages.nextCursor != null) {
+            url += '&cursor=' + encodeURIComponent(pages.nextCursor)
+        }
 
         fetch(url)
             .then(response => {
@@ -129,15 +116,16 @@ export default function Feed() {
                 return response.json();
             })
             .then(json => {
-                const {articles: newArticles, boundId: newBoundId} = json as ArticlesAndBoundId;
+                const {articles: newArticles, boundId: newBoundId, nextCursor} = json as ArticleSummariesAndBoundId;
 
                 const newPages: Pages = {
                     articles: pages.articles,
-                    nextPage: pages.nextPage + 1,
+                    nextCursor: nextCursor,
+                    isLastPageLoaded: nextCursor == null,
                     loadingNow: false,
                     boundId: newBoundId,
                 }
-                newArticles.forEach(article => newPages.articles.push({article, isShown: false}))
+                newArticles.forEach(article => newPages.articles.push({article, text: null, isShown: false}))
                 setPages(newPages)
             })
             .catch(() => {
@@ -148,18 +136,42 @@ export default function Feed() {
             })
     }
 
-    useEffect(loadNextPage, [])
+    useEffect(loadNextPage, [reloadsCount])
 
     let articlesToShow: ArticleToShow[] = []
     for (let idx = 0; idx < pages.articles.length; ++idx) {
-        articlesToShow.push({article: pages.articles[idx].article, isShown: pages.articles[idx].isShown, isTop: false, idx: idx})
+        articlesToShow.push({article: pages.articles[idx].article, text: pages.articles[idx].text, isShown: pages.articles[idx].isShown, isTop: false, idx: idx})
     }
     for (let idx = 0; idx < top.articles.length; ++idx) {
-        articlesToShow.push({article: top.articles[idx].article, isShown: top.articles[idx].isShown, isTop: true, idx: idx})
+        articlesToShow.push({article: top.articles[idx].article, text: top.articles[idx].text, isShown: top.articles[idx].isShown, isTop: true, idx: idx})
     }
     articlesToShow.sort((article1, article2) => article2.article.timestamp - article1.article.timestamp)
 
+    const loadArticleText = (id: number) => {
+        fetch(API_URL + '/api/articles/' + id)
+            .then(response => {
+                if (!response.ok) {
+                    return Promise.reject();
+                }
+                return response.json();
+            })
+            .then(json => {
+                const {text} = json as Article;
+                const withText = (articles: ArticleAndInfo[]) =>
+                    articles.map(info => info.article.id == id ? {...info, text: text} : info)
+
+                setTop(top => ({...top, articles: withText(top.articles)}))
+                setPages(pages => ({...pages, articles: withText(pages.articles)}))
+            })
+            .catch(() => {})
+    }
+
     const toggleArticle = (idx: number, isTop: boolean) => {
+        const info = isTop ? top.articles[idx] : pages.articles[idx];
+        if (!info.isShown && info.text == null) {
+            loadArticleText(info.article.id)
+        }
+
         const doToggle = (articles: ArticleAndInfo[]) => {
             let result = [...articles];
             result[idx].isShown = !result[idx].isShown;
@@ -201,7 +213,7 @@ export default function Feed() {
                                     </div>
                                 </div>
                                 <div className="articletext">
-                                    <p>{getPreparedArticleText(article.article.text)}</p>
+                                    <p>{getPreparedArticleText(article.text ?? article.article.snippet)}</p>
                                     <a href={article.article.link} target="_blank" rel="noopener noreferrer">
                                         <button>Открыть</button>
                                     </a>